@@ -0,0 +1,101 @@
+package frc.robot.vision;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost per camera frame of parsing Limelight results and picking a target, by number of visible tags.
+ *
+ * Runs on desktop against the dumps in src/jmh/resources/limelight_synthetic: synthetic_results_N.json is a JSON dump
+ * with N fiducials (and 3 note detections), synthetic_botpose_N.csv is the matching botpose array with N raw fiducials
+ * on the end. These are generated to match the Limelight's layout, not captured from a camera, so the numbers don't
+ * describe a real field. Drop real captures in next to them under a different name and point the benchmark at those.
+ * Throughput and sample time (for p99) are both reported; run with the gc profiler (./gradlew jmh) for bytes per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LimelightBenchmark
+{
+    @Param({"0", "1", "2", "4", "8", "16"})
+    public int FiducialCount;
+
+    private String ResultsJson;
+    private double[] BotPoseArray;
+    private double[] RawFiducialArray;
+    private LimelightHelpers.LimelightResults Results;
+
+    @Setup
+    public void Setup() throws IOException
+    {
+        ResultsJson = ReadResource("synthetic_results_" + FiducialCount + ".json");
+
+        BotPoseArray = Arrays.stream(ReadResource("synthetic_botpose_" + FiducialCount + ".csv").strip().split(","))
+            .mapToDouble(Double::parseDouble)
+            .toArray();
+        RawFiducialArray = Arrays.copyOfRange(BotPoseArray, 11, BotPoseArray.length);
+
+        Results = LimelightHelpers.parseResults(ResultsJson);
+        if (Results.error != null)
+        {
+            throw new IllegalStateException(
+                "Couldn't parse synthetic_results_" + FiducialCount + ".json: " + Results.error);
+        }
+    }
+
+    private static String ReadResource(String name) throws IOException
+    {
+        try (InputStream stream = LimelightBenchmark.class.getResourceAsStream("/limelight_synthetic/" + name))
+        {
+            if (stream == null) { throw new IOException("Missing benchmark resource " + name); }
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults ParseResults()
+    {
+        return LimelightHelpers.parseResults(ResultsJson);
+    }
+
+    @Benchmark
+    public LimelightHelpers.PoseEstimate ParseBotPoseEstimate()
+    {
+        return LimelightHelpers.parseBotPoseEstimate(BotPoseArray, 1_000_000);
+    }
+
+    @Benchmark
+    public LimelightHelpers.RawFiducial[] ParseRawFiducials()
+    {
+        return LimelightHelpers.parseRawFiducials(RawFiducialArray);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightTarget_Fiducial SelectBestTarget()
+    {
+        return Vision.SelectBestTarget(Results);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightTarget_Detector SelectBestNoteTarget()
+    {
+        return Vision.SelectBestNoteTarget(Results);
+    }
+
+    /**
+     * What Vision does every frame: parse the dump, then choose a tag
+     */
+    @Benchmark
+    public LimelightHelpers.LimelightTarget_Fiducial ParseAndSelect()
+    {
+        return Vision.SelectBestTarget(LimelightHelpers.parseResults(ResultsJson));
+    }
+}
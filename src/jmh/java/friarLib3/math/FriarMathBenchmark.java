@@ -0,0 +1,83 @@
+package friarLib3.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * FriarMath.Remap and FastMath against the java.lang.Math functions they stand in for
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriarMathBenchmark
+{
+    private static final int QueryCount = 1024;
+
+    private final double[] Angles = new double[QueryCount];
+    private final double[] Xs = new double[QueryCount];
+    private final double[] Ys = new double[QueryCount];
+    private final double[] Unit = new double[QueryCount];
+    private int QueryIndex = 0;
+
+    @Setup
+    public void Setup()
+    {
+        var random = new Random(3309);
+        for (int i = 0; i < QueryCount; i++)
+        {
+            Angles[i] = (random.nextDouble() - 0.5) * 4 * Math.PI;
+            Xs[i] = (random.nextDouble() - 0.5) * 10;
+            Ys[i] = (random.nextDouble() - 0.5) * 10;
+            Unit[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    private int Next()
+    {
+        QueryIndex = (QueryIndex + 1) & (QueryCount - 1);
+        return QueryIndex;
+    }
+
+    @Benchmark
+    public double Remap()
+    {
+        return FriarMath.Remap(Xs[Next()], -5, 5, -0.12, 0.28);
+    }
+
+    @Benchmark
+    public double RemapUnclamped()
+    {
+        return FriarMath.Remap(Xs[Next()], -5, 5, -0.12, 0.28, false);
+    }
+
+    @Benchmark
+    public double MathSin() { return Math.sin(Angles[Next()]); }
+
+    @Benchmark
+    public double FastSin() { return FastMath.Sin(Angles[Next()]); }
+
+    @Benchmark
+    public double MathAtan2()
+    {
+        int i = Next();
+        return Math.atan2(Ys[i], Xs[i]);
+    }
+
+    @Benchmark
+    public double FastAtan2()
+    {
+        int i = Next();
+        return FastMath.Atan2(Ys[i], Xs[i]);
+    }
+
+    @Benchmark
+    public double MathAsin() { return Math.asin(Unit[Next()]); }
+
+    @Benchmark
+    public double FastAsin() { return FastMath.Asin(Unit[Next()]); }
+}
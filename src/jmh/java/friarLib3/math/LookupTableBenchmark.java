@@ -0,0 +1,142 @@
+package friarLib3.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * LookupTable lookups at the table sizes we actually use (shot maps, response curves).
+ *
+ * Random queries jump all over the table, sweep queries move a little each call like a distance reading while driving.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupTableBenchmark
+{
+    private static final int QueryCount = 1024;
+
+    @Param({"4", "16", "64"})
+    public int Size;
+
+    @Param({"Linear", "MonotoneCubic"})
+    public String Interpolation;
+
+    private LookupTable Table;
+    private LookupTable.Normalized Normalized;
+    private LookupTable.Normalized.Compiled Compiled;
+    private LiveLookupTable Live;
+    private LookupTable2D Table2D;
+
+    private final double[] RandomQueries = new double[QueryCount];
+    private final double[] SweepQueries = new double[QueryCount];
+    private int QueryIndex = 0;
+
+    @Setup
+    public void Setup()
+    {
+        var random = new Random(3309);
+        var interpolation = LookupTable.EInterpolation.valueOf(Interpolation);
+
+        var builder = new LookupTable.Builder().WithInterpolation(interpolation);
+        var normalizedBuilder = new LookupTable.Normalized.Builder().WithInterpolation(interpolation);
+        var axis = new double[Size];
+        for (int i = 0; i < Size; i++)
+        {
+            double x = 1.5 + 3.0 * i / (Size - 1);
+            axis[i] = x;
+            builder.AddValue(x, random.nextDouble());
+
+            if (i > 0 && i < Size - 1)
+            {
+                double n = (double) i / (Size - 1);
+                normalizedBuilder.AddValue(n, n * n);
+            }
+        }
+
+        Table = builder.Build();
+        Normalized = normalizedBuilder.Build();
+        Compiled = Normalized.Compile(256);
+        Live = new LiveLookupTable(Table);
+
+        var builder2D = new LookupTable2D.Builder(axis, axis);
+        for (int i = 0; i < Size; i++)
+        {
+            for (int j = 0; j < Size; j++)
+            {
+                builder2D.SetValue(i, j, random.nextDouble());
+            }
+        }
+        Table2D = builder2D.Build();
+
+        double sweep = 1.5;
+        for (int i = 0; i < QueryCount; i++)
+        {
+            RandomQueries[i] = 1.0 + random.nextDouble() * 4.0;
+
+            sweep += 0.01;
+            if (sweep > 4.5) { sweep = 1.5; }
+            SweepQueries[i] = sweep;
+        }
+    }
+
+    private double NextRandom()
+    {
+        QueryIndex = (QueryIndex + 1) & (QueryCount - 1);
+        return RandomQueries[QueryIndex];
+    }
+
+    private double NextSweep()
+    {
+        QueryIndex = (QueryIndex + 1) & (QueryCount - 1);
+        return SweepQueries[QueryIndex];
+    }
+
+    @Benchmark
+    public double GetValueRandom()
+    {
+        return Table.GetValue(NextRandom());
+    }
+
+    @Benchmark
+    public double GetValueSweep()
+    {
+        return Table.GetValue(NextSweep());
+    }
+
+    @Benchmark
+    public double LiveGetValue()
+    {
+        return Live.GetValue(NextRandom());
+    }
+
+    @Benchmark
+    public double NormalizedGetValue()
+    {
+        return Normalized.GetValue((NextRandom() - 3) / 2);
+    }
+
+    @Benchmark
+    public double CompiledGetValue()
+    {
+        return Compiled.GetValue((NextRandom() - 3) / 2);
+    }
+
+    @Benchmark
+    public double Table2DRandom()
+    {
+        double x = NextRandom();
+        return Table2D.GetValue(x, NextRandom());
+    }
+
+    @Benchmark
+    public double Table2DSweep()
+    {
+        double x = NextSweep();
+        return Table2D.GetValue(x, x);
+    }
+}
@@ -0,0 +1,95 @@
+package friarLib3.utility;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * The per loop driver input pattern (set from joystick, cap, scale) with Vector3309 and MutableVector3309
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector3309Benchmark
+{
+    private static final int QueryCount = 1024;
+
+    private final double[] Xs = new double[QueryCount];
+    private final double[] Ys = new double[QueryCount];
+    private int QueryIndex = 0;
+
+    private final Vector3309 Vector = Vector3309.fromCartesianCoords(0, 0);
+    private final MutableVector3309 Mutable = new MutableVector3309();
+    private final Rotation2d Direction = Rotation2d.fromDegrees(30);
+
+    @Setup
+    public void Setup()
+    {
+        var random = new Random(3309);
+        for (int i = 0; i < QueryCount; i++)
+        {
+            Xs[i] = random.nextDouble() * 2 - 1;
+            Ys[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    private int Next()
+    {
+        QueryIndex = (QueryIndex + 1) & (QueryCount - 1);
+        return QueryIndex;
+    }
+
+    @Benchmark
+    public Vector3309 FromCartesianCoords()
+    {
+        int i = Next();
+        return Vector3309.fromCartesianCoords(Xs[i], Ys[i]);
+    }
+
+    @Benchmark
+    public Vector3309 FromRadialCoords()
+    {
+        return Vector3309.fromRadialCoords(Direction, Xs[Next()]);
+    }
+
+    @Benchmark
+    public Vector3309 SetCartesianCoords()
+    {
+        int i = Next();
+        return Vector.setCartesianCoords(Xs[i], Ys[i]);
+    }
+
+    @Benchmark
+    public Vector3309 DriverInput()
+    {
+        int i = Next();
+        return Vector.setCartesianCoords(Xs[i], Ys[i]).capMagnitude(1).scale(6);
+    }
+
+    @Benchmark
+    public double DriverInputMutable()
+    {
+        int i = Next();
+        return Mutable.set(Xs[i], Ys[i]).capMagnitude(1).scale(6).getXComponent();
+    }
+
+    @Benchmark
+    public Vector3309 Normalize()
+    {
+        int i = Next();
+        return Vector.setCartesianCoords(Xs[i], Ys[i]).normalize();
+    }
+
+    @Benchmark
+    public double NormalizeMutable()
+    {
+        int i = Next();
+        return Mutable.set(Xs[i], Ys[i]).normalize().getXComponent();
+    }
+}
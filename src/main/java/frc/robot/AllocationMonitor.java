@@ -0,0 +1,149 @@
+package frc.robot;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Watches how much garbage the main loop makes and how long the collector stops us for.
+ *
+ * Allocation is read from com.sun.management.ThreadMXBean, which counts bytes allocated per thread without
+ * allocating itself. LoopProfiler uses it to charge allocation to each profiled section, and Periodic checks the
+ * whole loop against AllocationBudgetBytes. Going over the budget warns on the driver station, naming the section
+ * that allocated the most that loop, at most once every few seconds.
+ *
+ * GC notifications report each collection's duration. The roboRIO runs a stop-the-world collector, so for us
+ * duration is pause time. Every collection is written to BinaryLog, the worst pause per second goes to the dashboard.
+ */
+public class AllocationMonitor
+{
+    // -- Bytes the main thread may allocate per loop before we complain TODO: tune once we've seen real numbers
+    private static final long AllocationBudgetBytes = 64 * 1024;
+    private static final double WarningPeriodSeconds = 5;
+    private static final double PublishPeriodSeconds = 1;
+
+    private static final ThreadMXBean Threads;
+    private static final boolean Supported;
+
+    // -- Written by the GC notification thread
+    private static final AtomicLong GcCount = new AtomicLong();
+    private static final AtomicLong GcPauseMicrosTotal = new AtomicLong();
+    private static final AtomicLong GcPauseMicrosMax = new AtomicLong();
+    private static int GcPauseLogChannel;
+
+    // -- Main thread only
+    private static long LastLoopBytes = 0;
+    private static double LastWarningTime = 0;
+    private static double LastPublishTime = 0;
+
+    private static Telemetry.DoubleChannel LoopBytesTelemetry;
+    private static Telemetry.BooleanChannel OverBudgetTelemetry;
+    private static Telemetry.DoubleChannel GcCountTelemetry;
+    private static Telemetry.DoubleChannel GcPauseTotalTelemetry;
+    private static Telemetry.DoubleChannel GcPauseMaxTelemetry;
+
+    static
+    {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof ThreadMXBean && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+        {
+            Threads = (ThreadMXBean) bean;
+            Threads.setThreadAllocatedMemoryEnabled(true);
+            Supported = true;
+        }
+        else
+        {
+            Threads = null;
+            Supported = false;
+        }
+    }
+
+    private AllocationMonitor() {}
+
+    /**
+     * Register the dashboard channels and start listening for collections
+     */
+    public static void Initialize()
+    {
+        if (!Supported)
+        {
+            System.out.println("AllocationMonitor: this JVM can't count allocated bytes per thread");
+        }
+
+        LoopBytesTelemetry = Telemetry.AddDouble("Alloc.LoopBytes", Telemetry.ELevel.Debug, 1);
+        OverBudgetTelemetry = Telemetry.AddBoolean("Alloc.OverBudget", Telemetry.ELevel.Match, 1);
+        GcCountTelemetry = Telemetry.AddDouble("GC.Count", Telemetry.ELevel.Match, 1);
+        GcPauseTotalTelemetry = Telemetry.AddDouble("GC.PauseMsTotal", Telemetry.ELevel.Match, 1);
+        GcPauseMaxTelemetry = Telemetry.AddDouble("GC.PauseMsMax", Telemetry.ELevel.Match, 1);
+        GcPauseLogChannel = BinaryLog.AddChannel("GC/PauseMs");
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            if (!(collector instanceof NotificationEmitter)) { continue; }
+
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) ->
+            {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) { return; }
+
+                var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long pauseMicros = info.getGcInfo().getDuration() * 1000;
+
+                GcCount.incrementAndGet();
+                GcPauseMicrosTotal.addAndGet(pauseMicros);
+                GcPauseMicrosMax.accumulateAndGet(pauseMicros, Math::max);
+                BinaryLog.Log(GcPauseLogChannel, pauseMicros / 1000.0);
+            }, null, null);
+        }
+
+        LastLoopBytes = CurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Bytes allocated by the calling thread since it started, 0 if the JVM can't tell us. Doesn't allocate.
+     */
+    public static long CurrentThreadAllocatedBytes()
+    {
+        return Supported ? Threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Call at the end of every loop, from the main thread, before LoopProfiler.Periodic
+     */
+    public static void Periodic()
+    {
+        long bytes = CurrentThreadAllocatedBytes();
+        long loopBytes = bytes - LastLoopBytes;
+        LastLoopBytes = bytes;
+
+        boolean overBudget = loopBytes > AllocationBudgetBytes;
+        LoopBytesTelemetry.Set(loopBytes);
+        OverBudgetTelemetry.Set(overBudget);
+
+        double now = Timer.getFPGATimestamp();
+        if (overBudget && now - LastWarningTime >= WarningPeriodSeconds)
+        {
+            LastWarningTime = now;
+
+            var top = LoopProfiler.GetTopAllocator();
+            DriverStation.reportWarning("Loop allocated " + loopBytes + " bytes (budget " + AllocationBudgetBytes + ")"
+                + (top != null ? ", most in " + top.GetName() + " (" + top.GetLoopBytes() + " bytes)" : ""), false);
+        }
+
+        if (now - LastPublishTime >= PublishPeriodSeconds)
+        {
+            LastPublishTime = now;
+            GcCountTelemetry.Set(GcCount.get());
+            GcPauseTotalTelemetry.Set(GcPauseMicrosTotal.get() / 1000.0);
+            GcPauseMaxTelemetry.Set(GcPauseMicrosMax.getAndSet(0) / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Records loop values to the on-robot log so a match can be looked at afterwards.
+ *
+ * Producers (the main loop, the odometry thread) write fixed-layout records (timestamp, channel, value) into a
+ * preallocated ring buffer. Writing claims a slot with a CAS and never locks or allocates. A low priority thread
+ * drains the buffer into a WPILib DataLog, which DataLogManager puts on the USB stick when there is one.
+ *
+ * If the writer falls behind and the buffer is full, the record is dropped and counted rather than blocking the
+ * loop. The count is logged as BinaryLog/Dropped.
+ *
+ * Channels are registered once at startup, AddChannel allocates.
+ */
+public class BinaryLog
+{
+    // -- Must be a power of two. 16k records is a few seconds of every channel at 250 Hz.
+    private static final int Capacity = 1 << 14;
+    private static final int Mask = Capacity - 1;
+    private static final long WriterIdleMs = 20;
+
+    // -- One record per slot. Sequence says whose turn the slot is:
+    // -- == position when free for that producer, == position + 1 when written and ready for the writer.
+    private static final long[] Timestamps = new long[Capacity];
+    private static final int[] ChannelIds = new int[Capacity];
+    private static final double[] Values = new double[Capacity];
+    private static final AtomicLongArray Sequence = new AtomicLongArray(Capacity);
+
+    private static final AtomicLong Head = new AtomicLong();
+    private static long Tail = 0; // -- Only touched by the writer thread
+
+    private static final AtomicLong Dropped = new AtomicLong();
+
+    private static final List<String> ChannelNames = new ArrayList<>();
+
+    private static Thread Writer;
+
+    static
+    {
+        for (int i = 0; i < Capacity; i++)
+        {
+            Sequence.set(i, i);
+        }
+    }
+
+    private BinaryLog() {}
+
+    /**
+     * Start the writer thread. Safe to call more than once.
+     */
+    public static synchronized void Start()
+    {
+        if (Writer != null) { return; }
+
+        Writer = new Thread(BinaryLog::RunWriter, "BinaryLog");
+        Writer.setDaemon(true);
+        Writer.setPriority(Thread.MIN_PRIORITY);
+        Writer.start();
+    }
+
+    /**
+     * @param name Log entry name, e.g. "Arm/Position"
+     * @return Id to pass to Log
+     */
+    public static synchronized int AddChannel(String name)
+    {
+        int index = ChannelNames.indexOf(name);
+        if (index >= 0) { return index; }
+
+        ChannelNames.add(name);
+        return ChannelNames.size() - 1;
+    }
+
+    /**
+     * Record a value stamped with the current FPGA time
+     */
+    public static void Log(int channel, double value)
+    {
+        Log(channel, value, RobotController.getFPGATime());
+    }
+
+    /**
+     * Record a value with a timestamp the caller already has, e.g. the odometry sample time
+     *
+     * @param timestampMicros FPGA time in microseconds
+     */
+    public static void Log(int channel, double value, long timestampMicros)
+    {
+        long position = Head.get();
+        while (true)
+        {
+            int slot = (int) (position & Mask);
+            long sequence = Sequence.get(slot);
+
+            if (sequence == position)
+            {
+                if (Head.compareAndSet(position, position + 1)) { break; }
+                position = Head.get();
+            }
+            else if (sequence < position)
+            {
+                // -- The writer hasn't drained this slot from the last lap yet
+                Dropped.incrementAndGet();
+                return;
+            }
+            else
+            {
+                position = Head.get();
+            }
+        }
+
+        int slot = (int) (position & Mask);
+        Timestamps[slot] = timestampMicros;
+        ChannelIds[slot] = channel;
+        Values[slot] = value;
+        Sequence.set(slot, position + 1);
+    }
+
+    public static long GetDroppedCount() { return Dropped.get(); }
+
+    /**
+     * Wait until the writer has drained everything logged so far. Only for offline runs like replay, which can
+     * produce faster than the writer keeps up. Never call it from the robot loop.
+     */
+    public static void Flush() throws InterruptedException
+    {
+        long last = Head.get() - 1;
+        if (last < 0 || Writer == null) { return; }
+
+        // -- The writer marks a slot drained by handing it to the producer one lap later
+        int slot = (int) (last & Mask);
+        while (Sequence.get(slot) < last + Capacity)
+        {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Create entries for channels registered since the last call, on the writer thread so producers never do it
+     */
+    private static void AddEntries(DataLog log, List<DoubleLogEntry> entries)
+    {
+        synchronized (BinaryLog.class)
+        {
+            while (entries.size() < ChannelNames.size())
+            {
+                entries.add(new DoubleLogEntry(log, ChannelNames.get(entries.size())));
+            }
+        }
+    }
+
+    private static void RunWriter()
+    {
+        DataLog log = DataLogManager.getLog();
+        var entries = new ArrayList<DoubleLogEntry>();
+        var droppedEntry = new IntegerLogEntry(log, "BinaryLog/Dropped");
+        long lastDropped = 0;
+
+        while (true)
+        {
+            int drained = 0;
+            while (true)
+            {
+                int slot = (int) (Tail & Mask);
+                if (Sequence.get(slot) != Tail + 1) { break; }
+
+                long timestamp = Timestamps[slot];
+                int channel = ChannelIds[slot];
+                double value = Values[slot];
+                Sequence.set(slot, Tail + Capacity);
+                Tail++;
+                drained++;
+
+                if (channel >= entries.size())
+                {
+                    AddEntries(log, entries);
+                }
+                entries.get(channel).append(value, timestamp);
+            }
+
+            long dropped = Dropped.get();
+            if (dropped != lastDropped)
+            {
+                droppedEntry.append(dropped);
+                lastDropped = dropped;
+            }
+
+            if (drained == 0)
+            {
+                try
+                {
+                    Thread.sleep(WriterIdleMs);
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+        }
+    }
+}
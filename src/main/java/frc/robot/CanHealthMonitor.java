@@ -0,0 +1,315 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.Utils;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Watches how fresh our sensor data is and how healthy the CAN buses are.
+ *
+ * IO implementations register the StatusSignals they read. Every loop, after the subsystems have refreshed them,
+ * Periodic looks at each signal's timestamp (no CAN traffic, it's the cached value from the last refresh) and tracks:
+ *  - Age: how old the value we just used is
+ *  - Jitter: spread between the shortest and longest update interval seen from the loop
+ *  - Missed: loops where the value didn't advance even though the device should have sent one and a half frames
+ *    by then, plus refreshes that came back with an error
+ * Age and jitter go out as the worst of each second, Can.[signal].AgeMs/.JitterMs. When a value is older than its
+ * budget, or the last refresh failed, Can.[signal].Stale is set and the driver station gets a warning (at most every
+ * few seconds).
+ *
+ * Bus status comes from CANBus.getStatus, which can take a while, so it's sampled on its own thread a few times a
+ * second and published from Periodic: utilization, TX/RX error counters, TX buffer full count, and bus-off count.
+ * A new bus-off always warns.
+ */
+public class CanHealthMonitor
+{
+    private static final double DefaultBudgetSeconds = 0.05;
+    private static final double LoopPeriodSeconds = 0.02;
+    private static final double MissedFrameFactor = 1.5;
+    private static final double WarningPeriodSeconds = 5;
+    private static final double PublishPeriodSeconds = 1;
+    private static final long BusSamplePeriodMs = 250;
+
+    private static final List<Signal> Signals = new ArrayList<>();
+    private static final List<Bus> Buses = new ArrayList<>();
+
+    private static Telemetry.BooleanChannel AnyStaleTelemetry;
+    private static double LastWarningTime = 0;
+    private static double LastPublishTime = 0;
+    private static Thread Sampler;
+
+    private CanHealthMonitor() {}
+
+    private static final class Signal
+    {
+        final String Name;
+        final StatusSignal<?> StatusSignal;
+        final double BudgetSeconds;
+
+        final Telemetry.DoubleChannel AgeTelemetry;
+        final Telemetry.DoubleChannel JitterTelemetry;
+        final Telemetry.DoubleChannel MissedTelemetry;
+        final Telemetry.BooleanChannel StaleTelemetry;
+        final int AgeLogChannel;
+
+        double LastTimestamp = 0;
+        double Age = 0;
+        long Missed = 0;
+        boolean Stale = false;
+
+        // -- Reset every publish
+        double MaxAge = 0;
+        double MinInterval = Double.MAX_VALUE;
+        double MaxInterval = 0;
+
+        Signal(String name, StatusSignal<?> signal, double budgetSeconds)
+        {
+            Name = name;
+            StatusSignal = signal;
+            BudgetSeconds = budgetSeconds;
+
+            var prefix = "Can." + name + ".";
+            AgeTelemetry = Telemetry.AddDouble(prefix + "AgeMs", Telemetry.ELevel.Debug, 1);
+            JitterTelemetry = Telemetry.AddDouble(prefix + "JitterMs", Telemetry.ELevel.Debug, 1);
+            MissedTelemetry = Telemetry.AddDouble(prefix + "Missed", Telemetry.ELevel.Match, 1);
+            StaleTelemetry = Telemetry.AddBoolean(prefix + "Stale", Telemetry.ELevel.Match, 1);
+            AgeLogChannel = BinaryLog.AddChannel("Can/" + name + "/AgeMs");
+        }
+
+        void Update(double now)
+        {
+            var timestamp = StatusSignal.getTimestamp();
+            double time = timestamp.isValid() ? timestamp.getTime() : LastTimestamp;
+            boolean ok = StatusSignal.getStatus() == StatusCode.OK;
+
+            if (time <= 0)
+            {
+                // -- Nothing received yet, e.g. the device is still booting
+                Age = Double.POSITIVE_INFINITY;
+                Stale = true;
+                StaleTelemetry.Set(true);
+                return;
+            }
+            Age = now - time;
+
+            double frequency = StatusSignal.getAppliedUpdateFrequency();
+            double period = frequency > 0 ? 1.0 / frequency : LoopPeriodSeconds;
+
+            if (time > LastTimestamp)
+            {
+                if (LastTimestamp > 0)
+                {
+                    double interval = time - LastTimestamp;
+                    MinInterval = Math.min(MinInterval, interval);
+                    MaxInterval = Math.max(MaxInterval, interval);
+                }
+                LastTimestamp = time;
+            }
+            else if (Age > MissedFrameFactor * period)
+            {
+                Missed++;
+            }
+            if (!ok)
+            {
+                Missed++;
+            }
+
+            MaxAge = Math.max(MaxAge, Age);
+            Stale = !ok || Age > BudgetSeconds;
+            StaleTelemetry.Set(Stale);
+            BinaryLog.Log(AgeLogChannel, Age * 1000);
+        }
+
+        void PublishAndReset()
+        {
+            AgeTelemetry.Set(MaxAge * 1000);
+            JitterTelemetry.Set(MaxInterval >= MinInterval ? (MaxInterval - MinInterval) * 1000 : 0);
+            MissedTelemetry.Set(Missed);
+
+            MaxAge = 0;
+            MinInterval = Double.MAX_VALUE;
+            MaxInterval = 0;
+        }
+    }
+
+    private static final class Bus
+    {
+        final String Name;
+
+        final Telemetry.DoubleChannel UtilizationTelemetry;
+        final Telemetry.DoubleChannel TxErrorsTelemetry;
+        final Telemetry.DoubleChannel RxErrorsTelemetry;
+        final Telemetry.DoubleChannel TxFullTelemetry;
+        final Telemetry.DoubleChannel BusOffTelemetry;
+        final Telemetry.BooleanChannel OkTelemetry;
+
+        // -- Written by the sampler thread
+        volatile boolean Ok = true;
+        volatile double Utilization = 0;
+        volatile int TxErrors = 0;
+        volatile int RxErrors = 0;
+        volatile int TxFull = 0;
+        volatile int BusOff = -1; // -- -1 until the first good sample
+
+        int LastBusOff = -1; // -- Main thread only
+
+        Bus(String name)
+        {
+            Name = name;
+
+            var prefix = "Can.Bus." + name + ".";
+            UtilizationTelemetry = Telemetry.AddDouble(prefix + "Utilization", Telemetry.ELevel.Match, 1);
+            TxErrorsTelemetry = Telemetry.AddDouble(prefix + "TxErrors", Telemetry.ELevel.Debug, 1);
+            RxErrorsTelemetry = Telemetry.AddDouble(prefix + "RxErrors", Telemetry.ELevel.Debug, 1);
+            TxFullTelemetry = Telemetry.AddDouble(prefix + "TxFull", Telemetry.ELevel.Debug, 1);
+            BusOffTelemetry = Telemetry.AddDouble(prefix + "BusOff", Telemetry.ELevel.Match, 1);
+            OkTelemetry = Telemetry.AddBoolean(prefix + "Ok", Telemetry.ELevel.Match, 1);
+        }
+
+        void Sample()
+        {
+            var status = CANBus.getStatus(Name);
+            Ok = status.Status == StatusCode.OK;
+            if (!Ok) { return; }
+
+            Utilization = status.BusUtilization;
+            TxErrors = status.TEC;
+            RxErrors = status.REC;
+            TxFull = status.TxFullCount;
+            BusOff = status.BusOffCount;
+        }
+
+        void Publish()
+        {
+            UtilizationTelemetry.Set(Utilization);
+            TxErrorsTelemetry.Set(TxErrors);
+            RxErrorsTelemetry.Set(RxErrors);
+            TxFullTelemetry.Set(TxFull);
+            BusOffTelemetry.Set(Math.max(BusOff, 0));
+            OkTelemetry.Set(Ok);
+        }
+    }
+
+    /**
+     * Watch a signal with the default age budget. Call once, from the IO that refreshes it.
+     */
+    public static void Register(String name, StatusSignal<?> signal)
+    {
+        Register(name, signal, DefaultBudgetSeconds);
+    }
+
+    /**
+     * @param budgetSeconds Oldest the value may be when we use it before it's flagged as stale
+     */
+    public static synchronized void Register(String name, StatusSignal<?> signal, double budgetSeconds)
+    {
+        Signals.add(new Signal(name, signal, budgetSeconds));
+    }
+
+    /**
+     * Start sampling a bus's status. Only CANivores and "rio" report it.
+     */
+    public static synchronized void AddBus(String name)
+    {
+        for (var bus : Buses)
+        {
+            if (bus.Name.equals(name)) { return; }
+        }
+        Buses.add(new Bus(name));
+    }
+
+    /**
+     * Start the bus sampler. Call once from robotInit, after the buses are added.
+     */
+    public static synchronized void Initialize()
+    {
+        AnyStaleTelemetry = Telemetry.AddBoolean("Can.Stale", Telemetry.ELevel.Match, 1);
+
+        if (Sampler != null || Buses.isEmpty()) { return; }
+
+        Sampler = new Thread(CanHealthMonitor::RunSampler, "CanHealth");
+        Sampler.setDaemon(true);
+        Sampler.setPriority(Thread.MIN_PRIORITY);
+        Sampler.start();
+    }
+
+    /**
+     * Call every loop from the main thread, after the subsystems have refreshed their signals
+     */
+    public static void Periodic()
+    {
+        double now = Utils.getCurrentTimeSeconds();
+
+        Signal stalest = null;
+        for (int i = 0; i < Signals.size(); i++)
+        {
+            var signal = Signals.get(i);
+            signal.Update(now);
+            if (signal.Stale && (stalest == null || signal.Age > stalest.Age)) { stalest = signal; }
+        }
+
+        if (AnyStaleTelemetry != null)
+        {
+            AnyStaleTelemetry.Set(stalest != null);
+        }
+
+        double time = Timer.getFPGATimestamp();
+        if (stalest != null && time - LastWarningTime >= WarningPeriodSeconds)
+        {
+            LastWarningTime = time;
+            DriverStation.reportWarning("CAN signal " + stalest.Name + " is stale: "
+                + (Double.isInfinite(stalest.Age) ? "no data yet" : (int) (stalest.Age * 1000) + " ms old")
+                + " (budget " + (int) (stalest.BudgetSeconds * 1000) + " ms)", false);
+        }
+
+        for (int i = 0; i < Buses.size(); i++)
+        {
+            var bus = Buses.get(i);
+            int busOff = bus.BusOff;
+            if (busOff > bus.LastBusOff && bus.LastBusOff >= 0)
+            {
+                DriverStation.reportWarning("CAN bus " + bus.Name + " went bus-off (" + busOff + " total)", false);
+            }
+            bus.LastBusOff = busOff;
+        }
+
+        if (time - LastPublishTime < PublishPeriodSeconds) { return; }
+        LastPublishTime = time;
+
+        for (int i = 0; i < Signals.size(); i++)
+        {
+            Signals.get(i).PublishAndReset();
+        }
+        for (int i = 0; i < Buses.size(); i++)
+        {
+            Buses.get(i).Publish();
+        }
+    }
+
+    private static void RunSampler()
+    {
+        while (true)
+        {
+            for (int i = 0; i < Buses.size(); i++)
+            {
+                Buses.get(i).Sample();
+            }
+
+            try
+            {
+                Thread.sleep(BusSamplePeriodMs);
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+        }
+    }
+}
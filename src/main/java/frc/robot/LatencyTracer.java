@@ -0,0 +1,282 @@
+package frc.robot;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+/**
+ * Measures how long it takes from a driver input to the first motor command it causes.
+ *
+ * Bind a trigger to a command through Bind instead of onTrue. On the rising edge a span is taken from a fixed
+ * pool and stamped with System.nanoTime, then followed through the command's initialize and first execute
+ * (CommandScheduler hooks) until an IO implementation reports a write to an actuator owned by one of the command's
+ * requirements while it's scheduled. Each stage goes into LoopProfiler histograms, so
+ * Profiler.Latency.[action].[stage].p50/.p99/.max show up next to the loop timings, and the total is written to
+ * BinaryLog as Latency/[action]/TotalMs.
+ *
+ * The span starts when the scheduler polls the trigger, not when the button was pressed. Driver Station packet and
+ * loop phase delay come before that and aren't measured here.
+ *
+ * Writes made while the command is being scheduled, e.g. by the end() of the command it interrupts, don't count.
+ * A press while the command is already running doesn't open a span, since onTrue wouldn't restart it either.
+ *
+ * Spans that end without writing to an actuator (interrupted, or the command did nothing) are counted as
+ * Latency.[action].Unactuated. If every span is in use, new ones are dropped and counted as Latency.Dropped.
+ */
+public class LatencyTracer
+{
+    private static final int PoolSize = 16;
+
+    private static final Span[] Pool = new Span[PoolSize];
+    private static int OpenCount = 0;
+
+    // -- IO implementation -> subsystem that owns it
+    private static final Map<Object, Subsystem> Actuators = new IdentityHashMap<>();
+
+    private static Telemetry.DoubleChannel DroppedTelemetry;
+    private static long Dropped = 0;
+
+    static
+    {
+        for (int i = 0; i < PoolSize; i++)
+        {
+            Pool[i] = new Span();
+        }
+    }
+
+    private LatencyTracer() {}
+
+    /**
+     * Stats for one traced binding
+     */
+    private static final class Action
+    {
+        final LoopProfiler.Section TriggerToInitialize;
+        final LoopProfiler.Section InitializeToExecute;
+        final LoopProfiler.Section ExecuteToActuation;
+        final LoopProfiler.Section Total;
+        final Telemetry.DoubleChannel UnactuatedTelemetry;
+        final int TotalLogChannel;
+        long Unactuated = 0;
+
+        Action(String name)
+        {
+            var prefix = "Latency." + name + ".";
+            TriggerToInitialize = LoopProfiler.GetSection(prefix + "TriggerToInitialize");
+            InitializeToExecute = LoopProfiler.GetSection(prefix + "InitializeToExecute");
+            ExecuteToActuation = LoopProfiler.GetSection(prefix + "ExecuteToActuation");
+            Total = LoopProfiler.GetSection(prefix + "Total");
+            UnactuatedTelemetry = Telemetry.AddDouble(prefix + "Unactuated", Telemetry.ELevel.Match, 1);
+            TotalLogChannel = BinaryLog.AddChannel("Latency/" + name + "/TotalMs");
+        }
+    }
+
+    private static final class Span
+    {
+        boolean Open = false;
+        Action Action;
+        Command Command;
+        long TriggerNanos;
+        long InitializeNanos;
+        long ExecuteNanos;
+    }
+
+    /**
+     * Rising edge detector that opens a span right before scheduling the command
+     */
+    private static final class Binding implements Runnable
+    {
+        private final BooleanSupplier Condition;
+        private final Action Action;
+        private final Command Command;
+        private boolean Last = false;
+
+        Binding(BooleanSupplier condition, Action action, Command command)
+        {
+            Condition = condition;
+            Action = action;
+            Command = command;
+        }
+
+        @Override
+        public void run()
+        {
+            boolean pressed = Condition.getAsBoolean();
+            if (pressed && !Last && !Command.isScheduled())
+            {
+                var span = Open(Action, Command);
+                Command.schedule();
+
+                // -- Not allowed to run (disabled, or a requirement is held by something uninterruptible)
+                if (span != null && !Command.isScheduled())
+                {
+                    Release(span);
+                }
+            }
+            Last = pressed;
+        }
+    }
+
+    /**
+     * Same as trigger.onTrue(command), with the latency from the trigger to the first actuator write traced.
+     * Call while setting up bindings, before LoopProfiler.Initialize.
+     *
+     * @param trigger Usually a Trigger from a CommandXboxController
+     * @param action Name the latencies are published under
+     */
+    public static void Bind(BooleanSupplier trigger, String action, Command command)
+    {
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(new Binding(trigger, new Action(action), command));
+    }
+
+    /**
+     * Hook into the scheduler. Call once from robotInit.
+     */
+    public static void Initialize()
+    {
+        DroppedTelemetry = Telemetry.AddDouble("Latency.Dropped", Telemetry.ELevel.Match, 1);
+
+        var scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize(LatencyTracer::OnCommandInitialize);
+        scheduler.onCommandExecute(LatencyTracer::OnCommandExecute);
+        scheduler.onCommandFinish(LatencyTracer::OnCommandEnd);
+        scheduler.onCommandInterrupt(LatencyTracer::OnCommandEnd);
+    }
+
+    /**
+     * Say which subsystem an IO implementation drives, so its writes can be matched to commands' requirements
+     */
+    public static void RegisterActuator(Object io, Subsystem subsystem)
+    {
+        Actuators.put(io, subsystem);
+    }
+
+    /**
+     * Call from an IO implementation right after it sends a control request. Closes every open span whose command
+     * is scheduled and requires the subsystem that owns io. Cheap when nothing is being traced.
+     */
+    public static void Actuated(Object io)
+    {
+        if (OpenCount == 0) { return; }
+
+        var subsystem = Actuators.get(io);
+        if (subsystem == null) { return; }
+
+        var scheduler = CommandScheduler.getInstance();
+        long now = System.nanoTime();
+        for (int i = 0; i < PoolSize; i++)
+        {
+            var span = Pool[i];
+
+            // -- The scheduler adds the command before calling initialize, but after ending what it interrupts
+            if (span.Open && span.Command.getRequirements().contains(subsystem) && scheduler.isScheduled(span.Command))
+            {
+                Close(span, now);
+            }
+        }
+    }
+
+    /**
+     * @return The span, or null if the pool is empty
+     */
+    private static Span Open(Action action, Command command)
+    {
+        for (int i = 0; i < PoolSize; i++)
+        {
+            var span = Pool[i];
+            if (span.Open) { continue; }
+
+            span.Open = true;
+            span.Action = action;
+            span.Command = command;
+            span.TriggerNanos = System.nanoTime();
+            span.InitializeNanos = 0;
+            span.ExecuteNanos = 0;
+            OpenCount++;
+            return span;
+        }
+
+        Dropped++;
+        if (DroppedTelemetry != null)
+        {
+            DroppedTelemetry.Set(Dropped);
+        }
+        return null;
+    }
+
+    private static void OnCommandInitialize(Command command)
+    {
+        if (OpenCount == 0) { return; }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < PoolSize; i++)
+        {
+            var span = Pool[i];
+            if (span.Open && span.Command == command && span.InitializeNanos == 0)
+            {
+                span.InitializeNanos = now;
+            }
+        }
+    }
+
+    private static void OnCommandExecute(Command command)
+    {
+        if (OpenCount == 0) { return; }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < PoolSize; i++)
+        {
+            var span = Pool[i];
+            if (span.Open && span.Command == command && span.ExecuteNanos == 0)
+            {
+                span.ExecuteNanos = now;
+            }
+        }
+    }
+
+    private static void OnCommandEnd(Command command)
+    {
+        if (OpenCount == 0) { return; }
+
+        for (int i = 0; i < PoolSize; i++)
+        {
+            var span = Pool[i];
+            if (span.Open && span.Command == command)
+            {
+                var action = span.Action;
+                action.Unactuated++;
+                action.UnactuatedTelemetry.Set(action.Unactuated);
+                Release(span);
+            }
+        }
+    }
+
+    private static void Close(Span span, long actuationNanos)
+    {
+        // -- The hooks run after initialize and execute, so a write made inside them lands before their stamp
+        long initialize = span.InitializeNanos != 0 ? Math.min(span.InitializeNanos, actuationNanos) : actuationNanos;
+        long execute = span.ExecuteNanos != 0 ? Math.min(span.ExecuteNanos, actuationNanos) : actuationNanos;
+        execute = Math.max(execute, initialize);
+
+        var action = span.Action;
+        action.TriggerToInitialize.Record(initialize - span.TriggerNanos);
+        action.InitializeToExecute.Record(execute - initialize);
+        action.ExecuteToActuation.Record(actuationNanos - execute);
+        action.Total.Record(actuationNanos - span.TriggerNanos);
+        BinaryLog.Log(action.TotalLogChannel, (actuationNanos - span.TriggerNanos) / 1e6);
+
+        Release(span);
+    }
+
+    private static void Release(Span span)
+    {
+        span.Open = false;
+        span.Action = null;
+        span.Command = null;
+        OpenCount--;
+    }
+}
@@ -0,0 +1,310 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Times named sections of the loop and publishes p50/p99/max for each one once a second.
+ *
+ * Sections are timed with System.nanoTime into fixed log-linear histograms (four buckets per power of two of
+ * microseconds, so a reported percentile is within 25% of the real value). Nothing allocates while timing, and
+ * when the profiler is off Start and Stop return after one boolean check.
+ *
+ * Commands are timed through CommandScheduler hooks instead of being wrapped. A mark is set right before the
+ * scheduler starts executing commands and each onCommandExecute takes the time since the previous mark, so a
+ * command's time includes the isFinished of the command that ran before it. Subsystem periodics and trigger polling
+ * are timed together as Scheduler.Periodic, the scheduler has no hook between them. Our own subsystems time their
+ * periodic as [subsystem].Periodic inside that (Arm.Periodic, Intake.Periodic), what's left over is the drivetrain
+ * and the triggers.
+ *
+ * Each section also counts the bytes its thread allocated while it ran (see AllocationMonitor), published as
+ * Profiler.[section].allocBytes per call, so garbage-heavy paths stand out.
+ *
+ * Results go to Profiler.[section].p50/.p99/.max in microseconds. Toggle with Profiler.Enabled on the dashboard.
+ * Sections aren't reentrant and are meant for the main thread.
+ */
+public class LoopProfiler
+{
+    private static final double PublishPeriodSeconds = 1.0;
+
+    // -- Buckets cover up to 2^21 us (about two seconds), anything longer lands in the last one
+    private static final int BucketsPerOctave = 4;
+    private static final int BucketCount = BucketsPerOctave * 20;
+
+    private static boolean Enabled = true;
+
+    private static final List<Section> Sections = new ArrayList<>();
+    private static final Map<String, Section> SectionsByName = new HashMap<>();
+
+    private static BooleanEntry EnabledEntry;
+    private static long LastPublish = System.nanoTime();
+
+    // -- Command timing state, main thread only
+    private static long CommandMark = 0;
+    private static long CommandMarkBytes = 0;
+    private static Section SchedulerPeriodic;
+    private static Section SchedulerTotal;
+
+    private LoopProfiler() {}
+
+    public static final class Section
+    {
+        private final String Name;
+        private final boolean Aggregate;
+        private final long[] Buckets = new long[BucketCount];
+        private long Count = 0;
+        private long MaxNanos = 0;
+
+        private long StartNanos = 0;
+        private long StartBytes = 0;
+        private long LoopBytes = 0;
+        private long WindowBytes = 0;
+
+        private Telemetry.DoubleChannel P50;
+        private Telemetry.DoubleChannel P99;
+        private Telemetry.DoubleChannel Max;
+        private Telemetry.DoubleChannel AllocBytes;
+
+        private Section(String name, boolean aggregate)
+        {
+            Name = name;
+            Aggregate = aggregate;
+        }
+
+        public String GetName() { return Name; }
+
+        /**
+         * @return Bytes allocated in this section during the current loop
+         */
+        public long GetLoopBytes() { return LoopBytes; }
+
+        /**
+         * @return Durations recorded since the last publish
+         */
+        public long GetCount() { return Count; }
+
+        /**
+         * @return Longest duration recorded since the last publish
+         */
+        public long GetMaxNanos() { return MaxNanos; }
+
+        /**
+         * Add a duration measured somewhere other than Start/Stop, e.g. a LatencyTracer stage
+         */
+        public void Record(long nanos)
+        {
+            if (Enabled) { Record(nanos, 0); }
+        }
+
+        private void Record(long nanos, long bytes)
+        {
+            Buckets[BucketIndex(nanos / 1000)]++;
+            Count++;
+            if (nanos > MaxNanos) { MaxNanos = nanos; }
+
+            LoopBytes += bytes;
+            WindowBytes += bytes;
+        }
+
+        private void PublishAndReset()
+        {
+            if (Count == 0) { return; }
+
+            if (P50 == null)
+            {
+                P50 = Telemetry.AddDouble("Profiler." + Name + ".p50", Telemetry.ELevel.Debug, 1);
+                P99 = Telemetry.AddDouble("Profiler." + Name + ".p99", Telemetry.ELevel.Debug, 1);
+                Max = Telemetry.AddDouble("Profiler." + Name + ".max", Telemetry.ELevel.Debug, 1);
+                AllocBytes = Telemetry.AddDouble("Profiler." + Name + ".allocBytes", Telemetry.ELevel.Debug, 1);
+            }
+
+            P50.Set(Percentile(0.50));
+            P99.Set(Percentile(0.99));
+            Max.Set(MaxNanos / 1000.0);
+            AllocBytes.Set((double) WindowBytes / Count);
+
+            Arrays.fill(Buckets, 0);
+            Count = 0;
+            MaxNanos = 0;
+            WindowBytes = 0;
+        }
+
+        /**
+         * Upper edge of the bucket holding the given percentile, in microseconds
+         */
+        private double Percentile(double fraction)
+        {
+            long target = (long) Math.ceil(Count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BucketCount; i++)
+            {
+                seen += Buckets[i];
+                if (seen >= target)
+                {
+                    return Math.min(BucketLowerBound(i + 1), MaxNanos / 1000.0);
+                }
+            }
+            return MaxNanos / 1000.0;
+        }
+    }
+
+    /**
+     * Hook up command timing. Call once after the bindings are set up, so the start mark runs after every trigger.
+     */
+    public static void Initialize()
+    {
+        SchedulerPeriodic = GetAggregateSection("Scheduler.Periodic");
+        SchedulerTotal = GetAggregateSection("Scheduler");
+
+        EnabledEntry = NetworkTableInstance.getDefault().getTable("SmartDashboard").getBooleanTopic("Profiler.Enabled").getEntry(Enabled);
+        EnabledEntry.set(Enabled);
+
+        var scheduler = CommandScheduler.getInstance();
+        scheduler.getDefaultButtonLoop().bind(() ->
+        {
+            if (!Enabled || SchedulerPeriodic.StartNanos == 0) { return; }
+
+            Stop(SchedulerPeriodic);
+            CommandMark = System.nanoTime();
+            CommandMarkBytes = AllocationMonitor.CurrentThreadAllocatedBytes();
+        });
+        scheduler.onCommandExecute(LoopProfiler::OnCommandExecute);
+    }
+
+    /**
+     * @return The section with this name, created the first time it's asked for
+     */
+    public static Section GetSection(String name)
+    {
+        return GetSection(name, false);
+    }
+
+    /**
+     * Same as GetSection, for a section that contains other sections. It's never reported as the top allocator.
+     */
+    public static Section GetAggregateSection(String name)
+    {
+        return GetSection(name, true);
+    }
+
+    private static Section GetSection(String name, boolean aggregate)
+    {
+        var section = SectionsByName.get(name);
+        if (section == null)
+        {
+            section = new Section(name, aggregate);
+            SectionsByName.put(name, section);
+            Sections.add(section);
+        }
+        return section;
+    }
+
+    public static void Start(Section section)
+    {
+        if (!Enabled) { return; }
+
+        section.StartNanos = System.nanoTime();
+        section.StartBytes = AllocationMonitor.CurrentThreadAllocatedBytes();
+    }
+
+    public static void Stop(Section section)
+    {
+        if (!Enabled || section.StartNanos == 0) { return; }
+
+        section.Record(System.nanoTime() - section.StartNanos,
+            AllocationMonitor.CurrentThreadAllocatedBytes() - section.StartBytes);
+        section.StartNanos = 0;
+    }
+
+    /**
+     * Run the command scheduler, timing it as a whole and per command
+     */
+    public static void RunScheduler()
+    {
+        CommandMark = 0;
+        Start(SchedulerTotal);
+        Start(SchedulerPeriodic);
+        CommandScheduler.getInstance().run();
+        SchedulerPeriodic.StartNanos = 0; // -- In case the mark never ran
+        Stop(SchedulerTotal);
+    }
+
+    private static void OnCommandExecute(Command command)
+    {
+        if (!Enabled || CommandMark == 0) { return; }
+
+        long now = System.nanoTime();
+        long bytes = AllocationMonitor.CurrentThreadAllocatedBytes();
+        GetSection(command.getName()).Record(now - CommandMark, bytes - CommandMarkBytes);
+        CommandMark = now;
+        CommandMarkBytes = bytes;
+    }
+
+    /**
+     * @return The non-aggregate section that allocated the most this loop, or null if none did
+     */
+    public static Section GetTopAllocator()
+    {
+        Section top = null;
+        for (int i = 0; i < Sections.size(); i++)
+        {
+            var section = Sections.get(i);
+            if (section.Aggregate || section.LoopBytes == 0) { continue; }
+            if (top == null || section.LoopBytes > top.LoopBytes) { top = section; }
+        }
+        return top;
+    }
+
+    /**
+     * Call once at the end of every loop. Publishes and resets every histogram once a second, and picks up the
+     * dashboard toggle.
+     */
+    public static void Periodic()
+    {
+        for (int i = 0; i < Sections.size(); i++)
+        {
+            Sections.get(i).LoopBytes = 0;
+        }
+
+        long now = System.nanoTime();
+        if ((now - LastPublish) < PublishPeriodSeconds * 1e9) { return; }
+        LastPublish = now;
+
+        if (EnabledEntry != null)
+        {
+            Enabled = EnabledEntry.get();
+        }
+
+        for (int i = 0; i < Sections.size(); i++)
+        {
+            Sections.get(i).PublishAndReset();
+        }
+    }
+
+    // -- Log-linear bucketing: exact below 4 us, then BucketsPerOctave buckets per power of two
+    private static int BucketIndex(long micros)
+    {
+        if (micros < BucketsPerOctave) { return (int) Math.max(micros, 0); }
+
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >> (octave - 2)) & (BucketsPerOctave - 1);
+        return Math.min(BucketsPerOctave * (octave - 1) + sub, BucketCount - 1);
+    }
+
+    private static double BucketLowerBound(int index)
+    {
+        if (index < BucketsPerOctave) { return index; }
+
+        int octave = index / BucketsPerOctave + 1;
+        int sub = index % BucketsPerOctave;
+        return (double) ((BucketsPerOctave + sub) << (octave - 2));
+    }
+}
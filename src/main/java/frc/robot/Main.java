@@ -6,10 +6,18 @@ package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
 
+import frc.robot.io.InputLog;
+import frc.robot.io.Replay;
+
 public final class Main {
   private Main() {}
 
   public static void main(String... args) {
+    // -- Arm and intake logic only, the drivetrain and vision aren't recorded (see Replay)
+    if (InputLog.GetMode() == InputLog.EMode.Replay) {
+      Replay.Run(System.getenv("REPLAY_LOG"));
+      return;
+    }
     RobotBase.startRobot(Robot::new);
   }
 }
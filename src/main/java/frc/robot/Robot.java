@@ -7,23 +7,37 @@ package frc.robot;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.net.PortForwarder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import frc.robot.vision.LimelightHelpers;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 
+import frc.robot.constants.Constants;
+import frc.robot.io.DriverStationLog;
+import frc.robot.io.InputLog;
+import frc.robot.vision.ShotMap;
 import frc.robot.vision.Vision;
+import friarLib3.utility.DeviceConfigurator;
 
 public class Robot extends TimedRobot
 {
   private Command AutonomousCommand;
   private RobotContainer RobotContainer;
 
+  // -- Loop profiler sections
+  private final LoopProfiler.Section VisionSection = LoopProfiler.GetSection("Robot.Vision");
+  private final LoopProfiler.Section TelemetrySection = LoopProfiler.GetSection("Robot.Telemetry");
+  private final LoopProfiler.Section CanHealthSection = LoopProfiler.GetSection("Robot.CanHealth");
+  private final LoopProfiler.Section LoopSection = LoopProfiler.GetAggregateSection("Robot.Loop");
+
   @Override
   public void robotInit()
   {
+    DataLogManager.start();
+    BinaryLog.Start();
+
     RobotContainer = new RobotContainer();
 
     for (int port = 5800; port <= 5807; port++)
@@ -32,6 +46,15 @@ public class Robot extends TimedRobot
     }
 
     RobotContainer.drivetrain.getDaqThread().setThreadPriority(99);
+    ShotMap.Initialize();
+    RegisterTelemetry();
+    LoopProfiler.Initialize();
+    LatencyTracer.Initialize();
+    CanHealthMonitor.AddBus(Constants.CanivoreBusIDs.BusName);
+    CanHealthMonitor.Initialize();
+    AllocationMonitor.Initialize();
+    DeviceConfigurator.WhenAllDone().thenAccept(ok ->
+      System.out.println(ok ? "Devices configured" : "Device configuration FAILED, check DeviceConfig on the dashboard"));
     System.out.println("Robot Initialized!");
 
     CommandScheduler.getInstance().schedule(Commands.sequence(
@@ -56,22 +79,81 @@ public class Robot extends TimedRobot
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
 
-    CommandScheduler.getInstance().run();
+    // -- Replay starts each loop itself, before the mode and the controller bindings read the driver station
+    if (InputLog.GetMode() != InputLog.EMode.Replay)
+    {
+      InputLog.BeginLoop();
+      DriverStationLog.Process();
+    }
+    LoopProfiler.Start(LoopSection);
+
+    LoopProfiler.RunScheduler();
 
+    LoopProfiler.Start(VisionSection);
     Vision.Periodic();
+    LoopProfiler.Stop(VisionSection);
 
-    // Return AprilTag data
-     SmartDashboard.putNumber("Best Target Tx", LimelightHelpers.getTX(""));
-        SmartDashboard.putNumber("Target ID #", LimelightHelpers.getFiducialID(""));
-        SmartDashboard.putNumber("Target Ty", LimelightHelpers.getTY(""));
-        SmartDashboard.putNumber("Target Ta", LimelightHelpers.getTA(""));
+    LoopProfiler.Start(CanHealthSection);
+    CanHealthMonitor.Periodic();
+    LoopProfiler.Stop(CanHealthSection);
 
-        // -- Output the robot orientation to the dashboard
-        SmartDashboard.putNumber("Robot Yaw", RobotContainer.drivetrain.getPigeon2().getYaw().getValue());
+    // -- Everything set during the loop, plus the sources from RegisterTelemetry, goes out to the dashboard here
+    LoopProfiler.Start(TelemetrySection);
+    DeviceConfigurator.DrainResults(Robot::PublishDeviceConfig);
+    Telemetry.Publish();
+    LoopProfiler.Stop(TelemetrySection);
 
-        SmartDashboard.putNumber("Distance To Target", Vision.ReturnDistance());
+    LoopProfiler.Stop(LoopSection);
+    AllocationMonitor.Periodic();
+    LoopProfiler.Periodic();
+  }
 
-    }
+  /**
+   * One pass of the robot loop (mode changes, mode periodic, robotPeriodic), for Replay to step without the notifier
+   */
+  public void RunLoop()
+  {
+    loopFunc();
+  }
+
+  private void RegisterTelemetry()
+  {
+    // Return AprilTag data
+    Telemetry.AddDouble("Best Target Tx", Telemetry.ELevel.Debug, 2, () -> LimelightHelpers.getTX(""));
+    Telemetry.AddDouble("Target ID #", Telemetry.ELevel.Debug, 2, () -> LimelightHelpers.getFiducialID(""));
+    Telemetry.AddDouble("Target Ty", Telemetry.ELevel.Debug, 2, () -> LimelightHelpers.getTY(""));
+    Telemetry.AddDouble("Target Ta", Telemetry.ELevel.Debug, 2, () -> LimelightHelpers.getTA(""));
+
+    // -- Output the robot orientation to the dashboard
+    Telemetry.AddDouble("Robot Yaw", Telemetry.ELevel.Match, 2, () -> RobotContainer.drivetrain.getPigeon2().getYaw().getValue());
+
+    Telemetry.AddDouble("Distance To Target", Telemetry.ELevel.Match, 2, Vision::ReturnDistance);
+
+    // -- Odometry runs at 250 Hz on its own thread, log every sample from there
+    int poseX = BinaryLog.AddChannel("Odometry/X");
+    int poseY = BinaryLog.AddChannel("Odometry/Y");
+    int poseRotation = BinaryLog.AddChannel("Odometry/Rotation");
+    int odometryPeriod = BinaryLog.AddChannel("Odometry/Period");
+    int failedDaqs = BinaryLog.AddChannel("Odometry/FailedDaqs");
+    RobotContainer.drivetrain.registerTelemetry(state ->
+    {
+      BinaryLog.Log(poseX, state.Pose.getX());
+      BinaryLog.Log(poseY, state.Pose.getY());
+      BinaryLog.Log(poseRotation, state.Pose.getRotation().getRadians());
+      BinaryLog.Log(odometryPeriod, state.OdometryPeriod);
+      BinaryLog.Log(failedDaqs, state.FailedDaqs);
+    });
+  }
+
+  // -- Devices are configured on worker threads, their results are published from the main thread as they come in
+  private static void PublishDeviceConfig(DeviceConfigurator.Result result)
+  {
+    var prefix = "DeviceConfig." + result.Name + ".";
+    Telemetry.AddDouble(prefix + "Time", Telemetry.ELevel.Match, 1).Set(result.Seconds);
+    Telemetry.AddBoolean(prefix + "Skipped", Telemetry.ELevel.Match, 1).Set(result.Skipped);
+    Telemetry.AddBoolean(prefix + "Ok", Telemetry.ELevel.Match, 1).Set(result.Ok);
+    Telemetry.AddDouble("DeviceConfig.TotalTime", Telemetry.ELevel.Match, 1).Set(result.TotalSeconds);
+  }
 
 
     // -------------------------------------------------------------------------------------------------------------------------------------
@@ -1,5 +1,241 @@
 package frc.robot;
 
-public class Telemetry {
-    
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Dashboard values, published once per loop in one pass.
+ *
+ * Channels are registered once (in a constructor, or when a command is built) and hold on to their NT publisher,
+ * so setting a value every loop is a field write instead of a SmartDashboard string lookup. Nothing goes out over
+ * NT until Publish, which Robot calls at the end of robotPeriodic.
+ *
+ * Channels can be given a source to poll instead of being set, the source is only read on loops where the channel
+ * actually publishes. Decimation publishes a channel every Nth loop, and Debug channels are skipped while an FMS
+ * is attached or the level is set to Match.
+ *
+ * Channels live in the SmartDashboard table under the same keys as before, so existing dashboard layouts still work.
+ * Values are also recorded to BinaryLog: set values every time, even when they don't go out over NT, and sources
+ * whenever they're polled.
+ */
+public class Telemetry
+{
+    public enum ELevel
+    {
+        Match, // -- Always published
+        Debug, // -- Only published off the field
+    }
+
+    private static final NetworkTable Table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+
+    private static final List<Channel> Channels = new ArrayList<>();
+    private static final Map<String, Channel> ChannelsByName = new HashMap<>();
+
+    private static ELevel Level = ELevel.Debug;
+    private static long LoopCount = 0;
+
+    private Telemetry() {}
+
+    private static abstract class Channel
+    {
+        final ELevel Level;
+        final int Decimation;
+        final int Phase;
+        final int LogChannel;
+        boolean Dirty = false;
+
+        Channel(String name, ELevel level, int decimation)
+        {
+            LogChannel = BinaryLog.AddChannel(name);
+            Level = level;
+            Decimation = Math.max(1, decimation);
+
+            // -- Spread decimated channels over different loops so they don't all land on the same one
+            Phase = Channels.size() % Decimation;
+        }
+
+        abstract void Publish();
+    }
+
+    public static final class DoubleChannel extends Channel
+    {
+        private final DoublePublisher Publisher;
+        private final DoubleSupplier Source;
+        private double Value;
+
+        private DoubleChannel(String name, ELevel level, int decimation, DoubleSupplier source)
+        {
+            super(name, level, decimation);
+            Publisher = Table.getDoubleTopic(name).publish();
+            Source = source;
+        }
+
+        public void Set(double value)
+        {
+            Value = value;
+            Dirty = true;
+            BinaryLog.Log(LogChannel, value);
+        }
+
+        @Override
+        void Publish()
+        {
+            if (Source != null)
+            {
+                Value = Source.getAsDouble();
+                BinaryLog.Log(LogChannel, Value);
+            }
+            else if (!Dirty)
+            {
+                return;
+            }
+            Publisher.set(Value);
+            Dirty = false;
+        }
+    }
+
+    public static final class BooleanChannel extends Channel
+    {
+        private final BooleanPublisher Publisher;
+        private final BooleanSupplier Source;
+        private boolean Value;
+
+        private BooleanChannel(String name, ELevel level, int decimation, BooleanSupplier source)
+        {
+            super(name, level, decimation);
+            Publisher = Table.getBooleanTopic(name).publish();
+            Source = source;
+        }
+
+        public void Set(boolean value)
+        {
+            Value = value;
+            Dirty = true;
+            BinaryLog.Log(LogChannel, value ? 1 : 0);
+        }
+
+        @Override
+        void Publish()
+        {
+            if (Source != null)
+            {
+                Value = Source.getAsBoolean();
+                BinaryLog.Log(LogChannel, Value ? 1 : 0);
+            }
+            else if (!Dirty)
+            {
+                return;
+            }
+            Publisher.set(Value);
+            Dirty = false;
+        }
+    }
+
+    /**
+     * Register a number that's set by the caller. Registering the same name again with the same level, decimation and
+     * source returns the same channel. Registering it with different ones, or as a different type, throws, since both
+     * would publish to the same topic and one of them would be silently ignored.
+     *
+     * @param decimation Publish every Nth loop, 1 for every loop
+     */
+    public static DoubleChannel AddDouble(String name, ELevel level, int decimation)
+    {
+        return AddDouble(name, level, decimation, null);
+    }
+
+    /**
+     * Register a number that's read from source during the publish pass
+     */
+    public static synchronized DoubleChannel AddDouble(String name, ELevel level, int decimation, DoubleSupplier source)
+    {
+        var existing = ChannelsByName.get(name);
+        if (existing instanceof DoubleChannel)
+        {
+            var channel = (DoubleChannel) existing;
+            CheckSame(name, channel, level, decimation, channel.Source, source);
+            return channel;
+        }
+        CheckUnused(name, existing);
+
+        var channel = new DoubleChannel(name, level, decimation, source);
+        Register(name, channel);
+        return channel;
+    }
+
+    public static BooleanChannel AddBoolean(String name, ELevel level, int decimation)
+    {
+        return AddBoolean(name, level, decimation, null);
+    }
+
+    public static synchronized BooleanChannel AddBoolean(String name, ELevel level, int decimation, BooleanSupplier source)
+    {
+        var existing = ChannelsByName.get(name);
+        if (existing instanceof BooleanChannel)
+        {
+            var channel = (BooleanChannel) existing;
+            CheckSame(name, channel, level, decimation, channel.Source, source);
+            return channel;
+        }
+        CheckUnused(name, existing);
+
+        var channel = new BooleanChannel(name, level, decimation, source);
+        Register(name, channel);
+        return channel;
+    }
+
+    private static void CheckUnused(String name, Channel existing)
+    {
+        if (existing != null)
+        {
+            throw new IllegalArgumentException("Telemetry: " + name + " is already registered as a "
+                + existing.getClass().getSimpleName());
+        }
+    }
+
+    private static void CheckSame(String name, Channel existing, ELevel level, int decimation, Object existingSource,
+        Object source)
+    {
+        if (existing.Level != level || existing.Decimation != Math.max(1, decimation) || existingSource != source)
+        {
+            throw new IllegalArgumentException("Telemetry: " + name + " is already registered with a different "
+                + "level, decimation or source");
+        }
+    }
+
+    private static void Register(String name, Channel channel)
+    {
+        ChannelsByName.put(name, channel);
+        Channels.add(channel);
+    }
+
+    public static void SetLevel(ELevel level) { Level = level; }
+    public static ELevel GetLevel() { return Level; }
+
+    /**
+     * Publish every channel that's due this loop. Call once per loop from the main thread.
+     */
+    public static synchronized void Publish()
+    {
+        boolean debug = Level == ELevel.Debug && !DriverStation.isFMSAttached();
+        long loop = LoopCount++;
+
+        for (int i = 0; i < Channels.size(); i++)
+        {
+            var channel = Channels.get(i);
+            if (channel.Level == ELevel.Debug && !debug) { continue; }
+            if (loop % channel.Decimation != channel.Phase) { continue; }
+
+            channel.Publish();
+        }
+    }
 }
@@ -131,8 +131,10 @@ public final class Constants {
         /******** Misc ********/
         public static final double TargetThreshold = 10;
 
-        /******** Pivot PID ********/
-        public static final PIDParameters PIVOT_MOTOR_PID = new PIDParameters(0, "Pivot Motor PID", 0.02, 0.0, 0.25, 0.0, 50); //everything in this is a placeholder
+        /******** Pivot Motion Magic Expo ********/
+        public static final double kPivotCruiseVelocity = 4; // rotations/s
+        public static final double kPivotExpoKV = 5;         // volts per rotation/s
+        public static final double kPivotExpoKA = 5;         // volts per rotation/s^2
 
     }
 
@@ -141,7 +143,7 @@ public final class Constants {
         public static final int INDEXER_MOTOR_ID = 100;
 
         /******** Indexer PID ********/
-        public static final PIDParameters INDEXER_MOTOR_PID = new PIDParameters(0, "Pivot Motor PID", 0.02, 0.0, 0.25, 0.0, 50); //everything in this is a placeholder
+        public static final PIDParameters INDEXER_MOTOR_PID = new PIDParameters(0, "Indexer Motor PID", 0.02, 0.0, 0.25, 0.0, 50); //everything in this is a placeholder
 
         /********** Indexer Motor Power **********/
         public static final double Indexer_MOTOR_POWER = 1;
@@ -154,6 +156,11 @@ public final class Constants {
 
         public static final double kArmZeroCosineOffset =
                 1.342;
+
+        /******** Arm Motion Magic Expo ********/
+        public static final double kArmCruiseVelocity = 5; // rotations/s
+        public static final double kArmExpoKV = 5;         // volts per rotation/s
+        public static final double kArmExpoKA = 3;         // volts per rotation/s^2
     }
 
     public class Shooter {
@@ -0,0 +1,225 @@
+package frc.robot.io;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Records what the Driver Station told the robot each loop: mode, alliance, match time and the controllers.
+ *
+ * Logged through InputLog as Inputs/DriverStation/[field]. In replay the recorded values are pushed into the
+ * simulated Driver Station instead, so the robot changes modes when it did in the match and the controller bindings
+ * fire on the same loops, scheduling the same commands.
+ */
+public final class DriverStationLog
+{
+    // -- Driver and operator controllers
+    private static final int JoystickPorts = 2;
+    private static final int MaxAxes = 6;
+    private static final int MaxPOVs = 1;
+
+    private static final AllianceStationID[] AllianceStations = AllianceStationID.values();
+
+    private static final DriverStationInputs Inputs = new DriverStationInputs();
+    private static InputLog.Handle Handle;
+
+    private DriverStationLog() {}
+
+    private static final class Joystick
+    {
+        int ButtonCount;
+        int Buttons;    // -- Bitmask, button 1 is bit 0
+        int AxisCount;
+        final double[] Axes = new double[MaxAxes];
+        int POVCount;
+        final int[] POVs = new int[MaxPOVs];
+    }
+
+    private static final class DriverStationInputs implements LoggableInputs
+    {
+        private static final int JoystickFields = 3 + MaxAxes + 1 + MaxPOVs;
+
+        boolean Enabled;
+        boolean Autonomous;
+        boolean Test;
+        boolean EStopped;
+        boolean FMSAttached;
+        boolean DSAttached;
+        int AllianceStation;
+        double MatchTime;
+        final Joystick[] Joysticks = new Joystick[JoystickPorts];
+
+        DriverStationInputs()
+        {
+            for (int i = 0; i < JoystickPorts; i++)
+            {
+                Joysticks[i] = new Joystick();
+            }
+        }
+
+        @Override
+        public String[] GetFieldNames()
+        {
+            var names = new String[8 + JoystickPorts * JoystickFields];
+            names[0] = "Enabled";
+            names[1] = "Autonomous";
+            names[2] = "Test";
+            names[3] = "EStopped";
+            names[4] = "FMSAttached";
+            names[5] = "DSAttached";
+            names[6] = "AllianceStation";
+            names[7] = "MatchTime";
+
+            int index = 8;
+            for (int port = 0; port < JoystickPorts; port++)
+            {
+                var prefix = "Joystick" + port + "/";
+                names[index++] = prefix + "ButtonCount";
+                names[index++] = prefix + "Buttons";
+                names[index++] = prefix + "AxisCount";
+                for (int axis = 0; axis < MaxAxes; axis++) { names[index++] = prefix + "Axis" + axis; }
+                names[index++] = prefix + "POVCount";
+                for (int pov = 0; pov < MaxPOVs; pov++) { names[index++] = prefix + "POV" + pov; }
+            }
+            return names;
+        }
+
+        @Override
+        public void ToLog(double[] values)
+        {
+            values[0] = Enabled ? 1 : 0;
+            values[1] = Autonomous ? 1 : 0;
+            values[2] = Test ? 1 : 0;
+            values[3] = EStopped ? 1 : 0;
+            values[4] = FMSAttached ? 1 : 0;
+            values[5] = DSAttached ? 1 : 0;
+            values[6] = AllianceStation;
+            values[7] = MatchTime;
+
+            int index = 8;
+            for (var joystick : Joysticks)
+            {
+                values[index++] = joystick.ButtonCount;
+                values[index++] = joystick.Buttons;
+                values[index++] = joystick.AxisCount;
+                for (int axis = 0; axis < MaxAxes; axis++) { values[index++] = joystick.Axes[axis]; }
+                values[index++] = joystick.POVCount;
+                for (int pov = 0; pov < MaxPOVs; pov++) { values[index++] = joystick.POVs[pov]; }
+            }
+        }
+
+        @Override
+        public void FromLog(double[] values)
+        {
+            Enabled = values[0] != 0;
+            Autonomous = values[1] != 0;
+            Test = values[2] != 0;
+            EStopped = values[3] != 0;
+            FMSAttached = values[4] != 0;
+            DSAttached = values[5] != 0;
+            AllianceStation = (int) values[6];
+            MatchTime = values[7];
+
+            int index = 8;
+            for (var joystick : Joysticks)
+            {
+                joystick.ButtonCount = (int) values[index++];
+                joystick.Buttons = (int) values[index++];
+                joystick.AxisCount = (int) values[index++];
+                for (int axis = 0; axis < MaxAxes; axis++) { joystick.Axes[axis] = values[index++]; }
+                joystick.POVCount = (int) values[index++];
+                for (int pov = 0; pov < MaxPOVs; pov++) { joystick.POVs[pov] = (int) values[index++]; }
+            }
+        }
+    }
+
+    /**
+     * Call every loop right after InputLog.BeginLoop. In replay, call it before the robot loop runs, so the mode
+     * and controller bindings see this loop's recorded values.
+     */
+    public static void Process()
+    {
+        if (Handle == null)
+        {
+            Handle = InputLog.Register("DriverStation", Inputs);
+        }
+
+        if (InputLog.GetMode() != InputLog.EMode.Replay)
+        {
+            Read();
+        }
+
+        Handle.Process();
+
+        if (InputLog.GetMode() == InputLog.EMode.Replay)
+        {
+            Write();
+        }
+    }
+
+    private static void Read()
+    {
+        Inputs.Enabled = DriverStation.isEnabled();
+        Inputs.Autonomous = DriverStation.isAutonomous();
+        Inputs.Test = DriverStation.isTest();
+        Inputs.EStopped = DriverStation.isEStopped();
+        Inputs.FMSAttached = DriverStation.isFMSAttached();
+        Inputs.DSAttached = DriverStation.isDSAttached();
+        Inputs.AllianceStation = DriverStation.getRawAllianceStation().ordinal();
+        Inputs.MatchTime = DriverStation.getMatchTime();
+
+        for (int port = 0; port < JoystickPorts; port++)
+        {
+            var joystick = Inputs.Joysticks[port];
+            joystick.ButtonCount = DriverStation.getStickButtonCount(port);
+            joystick.Buttons = DriverStation.getStickButtons(port);
+            joystick.AxisCount = Math.min(DriverStation.getStickAxisCount(port), MaxAxes);
+            for (int axis = 0; axis < MaxAxes; axis++)
+            {
+                joystick.Axes[axis] = axis < joystick.AxisCount ? DriverStation.getStickAxis(port, axis) : 0;
+            }
+            joystick.POVCount = Math.min(DriverStation.getStickPOVCount(port), MaxPOVs);
+            for (int pov = 0; pov < MaxPOVs; pov++)
+            {
+                joystick.POVs[pov] = pov < joystick.POVCount ? DriverStation.getStickPOV(port, pov) : -1;
+            }
+        }
+    }
+
+    private static void Write()
+    {
+        DriverStationSim.setEnabled(Inputs.Enabled);
+        DriverStationSim.setAutonomous(Inputs.Autonomous);
+        DriverStationSim.setTest(Inputs.Test);
+        DriverStationSim.setEStop(Inputs.EStopped);
+        DriverStationSim.setFmsAttached(Inputs.FMSAttached);
+        DriverStationSim.setDsAttached(Inputs.DSAttached);
+        DriverStationSim.setMatchTime(Inputs.MatchTime);
+
+        int station = Inputs.AllianceStation;
+        if (station >= 0 && station < AllianceStations.length)
+        {
+            DriverStationSim.setAllianceStationId(AllianceStations[station]);
+        }
+
+        for (int port = 0; port < JoystickPorts; port++)
+        {
+            var joystick = Inputs.Joysticks[port];
+            DriverStationSim.setJoystickButtonCount(port, joystick.ButtonCount);
+            DriverStationSim.setJoystickButtons(port, joystick.Buttons);
+            DriverStationSim.setJoystickAxisCount(port, joystick.AxisCount);
+            for (int axis = 0; axis < joystick.AxisCount; axis++)
+            {
+                DriverStationSim.setJoystickAxis(port, axis, joystick.Axes[axis]);
+            }
+            DriverStationSim.setJoystickPOVCount(port, joystick.POVCount);
+            for (int pov = 0; pov < joystick.POVCount; pov++)
+            {
+                DriverStationSim.setJoystickPOV(port, pov, joystick.POVs[pov]);
+            }
+        }
+
+        // -- Publishes the new values and refreshes DriverStation's cache, like a packet arriving from the DS
+        DriverStationSim.notifyNewData();
+    }
+}
@@ -0,0 +1,219 @@
+package frc.robot.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+
+import frc.robot.BinaryLog;
+
+/**
+ * Records the registered inputs each loop, and feeds them back in when replaying a recorded match.
+ *
+ * Handle.Process writes the inputs to BinaryLog as Inputs/[subsystem]/[field], all stamped with the time the loop
+ * started, plus an Inputs/Loop marker per loop. In replay the same call first overwrites the inputs with the recorded
+ * values for the current loop, so the subsystem's logic runs unchanged, and then logs them the same way. A replay's
+ * log therefore holds the inputs its outputs were computed from, under the same names and timestamps as the original.
+ *
+ * Only the arm, intake and Driver Station register inputs. The drivetrain and vision aren't recorded, see Replay.
+ *
+ * The mode is Replay when the REPLAY_LOG environment variable points at a .wpilog, otherwise Real or Sim.
+ */
+public class InputLog
+{
+    public enum EMode
+    {
+        Real,
+        Sim,
+        Replay,
+    }
+
+    private static final String Prefix = "Inputs/";
+    private static final String LoopEntry = Prefix + "Loop";
+
+    private static final EMode Mode = RobotBase.isReal() ? EMode.Real
+        : System.getenv("REPLAY_LOG") != null ? EMode.Replay
+        : EMode.Sim;
+
+    private static int LoopChannel = -1;
+    private static long LoopTimestamp = 0;
+    private static long LoopCount = 0;
+
+    // -- Replay data, by entry name
+    private static final Map<String, Series> Recorded = new HashMap<>();
+    private static Series LoopTimes;
+    private static int ReplayLoopIndex = -1;
+
+    private InputLog() {}
+
+    public static EMode GetMode() { return Mode; }
+
+    /**
+     * One subsystem's inputs. Keep it, and call Process every loop right after the IO updates the inputs.
+     */
+    public static final class Handle
+    {
+        private final LoggableInputs Inputs;
+        private final double[] Values;
+        private final int[] Channels;
+        private final Series[] ReplaySeries;
+
+        private Handle(String name, LoggableInputs inputs)
+        {
+            var fields = inputs.GetFieldNames();
+
+            Inputs = inputs;
+            Values = new double[fields.length];
+            Channels = new int[fields.length];
+            ReplaySeries = new Series[fields.length];
+
+            for (int i = 0; i < fields.length; i++)
+            {
+                var entry = Prefix + name + "/" + fields[i];
+                Channels[i] = BinaryLog.AddChannel(entry);
+                ReplaySeries[i] = Recorded.get(entry);
+            }
+        }
+
+        public void Process()
+        {
+            Inputs.ToLog(Values);
+
+            if (Mode == EMode.Replay)
+            {
+                // -- Fields missing from the recording keep their current value
+                for (int i = 0; i < Values.length; i++)
+                {
+                    if (ReplaySeries[i] != null)
+                    {
+                        Values[i] = ReplaySeries[i].ValueAt(LoopTimestamp, Values[i]);
+                    }
+                }
+                Inputs.FromLog(Values);
+            }
+
+            for (int i = 0; i < Values.length; i++)
+            {
+                BinaryLog.Log(Channels[i], Values[i], LoopTimestamp);
+            }
+        }
+    }
+
+    /**
+     * @param name Subsystem name, used in the log entry names
+     */
+    public static Handle Register(String name, LoggableInputs inputs)
+    {
+        return new Handle(name, inputs);
+    }
+
+    /**
+     * Call at the very start of every loop, before any inputs are processed
+     *
+     * @return False once a replay has run out of recorded loops
+     */
+    public static boolean BeginLoop()
+    {
+        if (LoopChannel < 0)
+        {
+            LoopChannel = BinaryLog.AddChannel(LoopEntry);
+        }
+
+        if (Mode == EMode.Replay)
+        {
+            if (LoopTimes == null || ReplayLoopIndex + 1 >= LoopTimes.Size) { return false; }
+
+            ReplayLoopIndex++;
+            LoopTimestamp = LoopTimes.Times[ReplayLoopIndex];
+            BinaryLog.Log(LoopChannel, LoopTimes.Values[ReplayLoopIndex], LoopTimestamp);
+            return true;
+        }
+
+        LoopTimestamp = RobotController.getFPGATime();
+        BinaryLog.Log(LoopChannel, LoopCount++, LoopTimestamp);
+        return true;
+    }
+
+    /**
+     * @return Timestamp of the current loop in microseconds, the recorded one when replaying
+     */
+    public static long GetLoopTimestamp() { return LoopTimestamp; }
+
+    /**
+     * Load the inputs from a recording. Call before any subsystem registers its inputs.
+     */
+    public static void LoadReplay(String path) throws IOException
+    {
+        var reader = new DataLogReader(path);
+        if (!reader.isValid())
+        {
+            throw new IOException(path + " isn't a WPILib data log");
+        }
+
+        Map<Integer, Series> byEntry = new HashMap<>();
+        for (DataLogRecord record : reader)
+        {
+            if (record.isStart())
+            {
+                var start = record.getStartData();
+                if (start.name.startsWith(Prefix) && start.type.equals("double"))
+                {
+                    var series = Recorded.computeIfAbsent(start.name, name -> new Series());
+                    byEntry.put(start.entry, series);
+                }
+                continue;
+            }
+            if (record.isControl()) { continue; }
+
+            var series = byEntry.get(record.getEntry());
+            if (series != null)
+            {
+                series.Add(record.getTimestamp(), record.getDouble());
+            }
+        }
+
+        LoopTimes = Recorded.get(LoopEntry);
+        System.out.println("InputLog: loaded " + Recorded.size() + " entries, "
+            + (LoopTimes != null ? LoopTimes.Size : 0) + " loops from " + path);
+    }
+
+    /**
+     * Recorded values of one entry, in time order
+     */
+    private static final class Series
+    {
+        long[] Times = new long[1024];
+        double[] Values = new double[1024];
+        int Size = 0;
+        int Cursor = -1;
+
+        void Add(long time, double value)
+        {
+            if (Size == Times.length)
+            {
+                Times = Arrays.copyOf(Times, Size * 2);
+                Values = Arrays.copyOf(Values, Size * 2);
+            }
+            Times[Size] = time;
+            Values[Size] = value;
+            Size++;
+        }
+
+        /**
+         * Latest value recorded at or before time. Loops only move forward, so this walks a cursor.
+         */
+        double ValueAt(long time, double fallback)
+        {
+            while (Cursor + 1 < Size && Times[Cursor + 1] <= time)
+            {
+                Cursor++;
+            }
+            return Cursor >= 0 ? Values[Cursor] : fallback;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package frc.robot.io;
+
+/**
+ * A flat set of sensor inputs that InputLog can record and replay.
+ *
+ * Every field is written as a double (booleans as 0 or 1), in the same order as GetFieldNames. ToLog and FromLog
+ * run every loop, so they must not allocate.
+ */
+public interface LoggableInputs
+{
+    /**
+     * Called once when the inputs are registered
+     */
+    String[] GetFieldNames();
+
+    void ToLog(double[] values);
+
+    void FromLog(double[] values);
+}
@@ -0,0 +1,87 @@
+package frc.robot.io;
+
+import java.io.File;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+import frc.robot.BinaryLog;
+import frc.robot.Robot;
+
+/**
+ * Replays the arm and intake logic against a recorded match on the desktop, as fast as it can.
+ *
+ * Started from Main when REPLAY_LOG is set. The whole Robot is built, RobotContainer and its bindings included, with
+ * the arm and intake on their replay IO. Each loop the recorded Driver Station state is fed in first (see
+ * DriverStationLog), so the robot enables and changes modes when it did and the controller bindings schedule the
+ * same commands, then the robot loop runs once against the recorded arm and intake inputs. Simulated time follows
+ * the recorded loop timestamps, so timers and timeouts see the same loop periods they did on the robot.
+ *
+ * Only the arm, intake and Driver Station inputs are recorded. The drivetrain has no IO layer and runs on the CTRE
+ * simulation, and the Limelight and other NetworkTables values read their defaults. Anything that depends on pose or
+ * camera data (AutoTagCommand, Vision, shots from the shot map) diverges from the match as soon as it runs, so only
+ * compare the arm and intake against the original.
+ *
+ * The result goes to replay_[log name] next to the input, and can be compared against the original or profiled
+ * without a robot.
+ */
+public final class Replay
+{
+    private static final int FlushEveryLoops = 100;
+
+    private Replay() {}
+
+    public static void Run(String path)
+    {
+        if (!HAL.initialize(500, 0))
+        {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        SimHooks.pauseTiming();
+
+        try
+        {
+            InputLog.LoadReplay(path);
+
+            var input = new File(path).getAbsoluteFile();
+            DataLogManager.start(input.getParent(), "replay_" + input.getName());
+            BinaryLog.Start();
+
+            var robot = new Robot();
+            robot.robotInit();
+            robot.simulationInit();
+
+            long start = System.nanoTime();
+            long loops = 0;
+            while (InputLog.BeginLoop())
+            {
+                long behind = InputLog.GetLoopTimestamp() - RobotController.getFPGATime();
+                if (behind > 0)
+                {
+                    SimHooks.stepTiming(behind / 1e6);
+                }
+
+                DriverStationLog.Process();
+                robot.RunLoop();
+
+                // -- Nothing paces us, don't outrun the log writer
+                if (++loops % FlushEveryLoops == 0)
+                {
+                    BinaryLog.Flush();
+                }
+            }
+            BinaryLog.Flush();
+            DataLogManager.getLog().flush();
+
+            System.out.printf("Replay: %d loops in %.1f s, %d log records dropped%n",
+                loops, (System.nanoTime() - start) / 1e9, BinaryLog.GetDroppedCount());
+        }
+        catch (Exception e)
+        {
+            System.out.println("Replay of " + path + " failed: " + e);
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import frc.robot.io.LoggableInputs;
+
+/**
+ * Everything ArmSubsystem reads from and writes to hardware.
+ *
+ * ArmIOTalonFX is the robot, ArmIOSim is a simple model for desktop sim. For replay the default methods are used
+ * as is, InputLog fills in the inputs from the recording and outputs go nowhere.
+ */
+public interface ArmIO
+{
+    class ArmIOInputs implements LoggableInputs
+    {
+        public double LeftPosition;     // -- Mechanism rotations
+        public double LeftVelocity;     // -- Mechanism rotations/s
+        public double LeftCurrent;      // -- Stator amps
+        public double RightPosition;
+
+        @Override
+        public String[] GetFieldNames()
+        {
+            return new String[] { "LeftPosition", "LeftVelocity", "LeftCurrent", "RightPosition" };
+        }
+
+        @Override
+        public void ToLog(double[] values)
+        {
+            values[0] = LeftPosition;
+            values[1] = LeftVelocity;
+            values[2] = LeftCurrent;
+            values[3] = RightPosition;
+        }
+
+        @Override
+        public void FromLog(double[] values)
+        {
+            LeftPosition = values[0];
+            LeftVelocity = values[1];
+            LeftCurrent = values[2];
+            RightPosition = values[3];
+        }
+    }
+
+    default void UpdateInputs(ArmIOInputs inputs) {}
+
+    /**
+     * Motion profiled move, gain slot 0
+     */
+    default void SetPoseTarget(double rotations) {}
+
+    /**
+     * Stiff position hold for climbing, gain slot 1
+     */
+    default void SetClimbTarget(double rotations) {}
+
+    default void ZeroPosition(double rotations) {}
+
+    default void SetNeutralMode(NeutralModeValue mode) {}
+}
@@ -0,0 +1,50 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Timer;
+
+import frc.robot.constants.Constants;
+
+/**
+ * Desktop stand-in for the arm. Moves toward the target at the motion magic cruise velocity, close enough to
+ * exercise command sequencing and tolerances without vendor sim.
+ */
+public class ArmIOSim implements ArmIO
+{
+    private static final double CruiseVelocity = Constants.Arm.kArmCruiseVelocity; // -- Same profile as ArmIOTalonFX
+
+    private double Position = ArmSubsystem.LowerLimit;
+    private double Velocity = 0;
+    private double Target = ArmSubsystem.LowerLimit;
+    private double LastTime = Timer.getFPGATimestamp();
+
+    @Override
+    public void UpdateInputs(ArmIOInputs inputs)
+    {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - LastTime;
+        LastTime = now;
+
+        double step = MathUtil.clamp(Target - Position, -CruiseVelocity * dt, CruiseVelocity * dt);
+        Position += step;
+        Velocity = dt > 0 ? step / dt : 0;
+
+        inputs.LeftPosition = Position;
+        inputs.LeftVelocity = Velocity;
+        inputs.LeftCurrent = 0;
+        inputs.RightPosition = Position;
+    }
+
+    @Override
+    public void SetPoseTarget(double rotations) { Target = rotations; }
+
+    @Override
+    public void SetClimbTarget(double rotations) { Target = rotations; }
+
+    @Override
+    public void ZeroPosition(double rotations)
+    {
+        Position = rotations;
+        Target = rotations;
+    }
+}
@@ -0,0 +1,162 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.*;
+import com.ctre.phoenix6.controls.*;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import frc.robot.CanHealthMonitor;
+import frc.robot.LatencyTracer;
+import frc.robot.constants.Constants;
+import friarLib3.utility.DeviceConfigurator;
+import friarLib3.utility.PIDParameters;
+
+/**
+ * Arm on the robot: two TalonFX, the right one following the left
+ */
+public class ArmIOTalonFX implements ArmIO
+{
+    private final TalonFX LeftMotor;
+    private final TalonFX RightMotor;
+
+    private final MotionMagicExpoTorqueCurrentFOC PoseRequest =
+        new MotionMagicExpoTorqueCurrentFOC(ArmSubsystem.LowerLimit)
+            .withSlot(0);
+    private final PositionTorqueCurrentFOC ClimbRequest =
+        new PositionTorqueCurrentFOC(ArmSubsystem.LowerLimit)
+            .withSlot(1);
+
+    // -- Live tunable from the dashboard, written to both arm motors
+    private final PIDParameters PosePID = new PIDParameters(0, "Arm Pose PID", 300, 0, 65);
+    private final PIDParameters ClimbPID = new PIDParameters(1, "Arm Climb PID", 2000, 0, 65); //TODO: add some KI to make sure we fully climb (probably about 150ish)
+
+    // -- Read together once per loop
+    private final StatusSignal<Double> LeftPosition;
+    private final StatusSignal<Double> LeftVelocity;
+    private final StatusSignal<Double> LeftCurrent;
+    private final StatusSignal<Double> RightPosition;
+
+
+    public ArmIOTalonFX()
+    {
+        LeftMotor = CreateMotor("Arm.Left", Constants.CanivoreBusIDs.ArmLeft.GetID());
+
+        RightMotor = CreateMotor("Arm.Right", Constants.CanivoreBusIDs.ArmRight.GetID());
+        RightMotor.setControl(new Follower(Constants.CanivoreBusIDs.ArmLeft.GetID(), true));
+
+        LeftPosition = LeftMotor.getPosition();
+        LeftVelocity = LeftMotor.getVelocity();
+        LeftCurrent = LeftMotor.getStatorCurrent();
+        RightPosition = RightMotor.getPosition();
+
+        CanHealthMonitor.Register("Arm.LeftPosition", LeftPosition);
+        CanHealthMonitor.Register("Arm.LeftVelocity", LeftVelocity);
+        CanHealthMonitor.Register("Arm.LeftCurrent", LeftCurrent);
+        CanHealthMonitor.Register("Arm.RightPosition", RightPosition);
+    }
+
+    @Override
+    public void UpdateInputs(ArmIOInputs inputs)
+    {
+        BaseStatusSignal.refreshAll(LeftPosition, LeftVelocity, LeftCurrent, RightPosition);
+
+        inputs.LeftPosition = LeftPosition.getValue();
+        inputs.LeftVelocity = LeftVelocity.getValue();
+        inputs.LeftCurrent = LeftCurrent.getValue();
+        inputs.RightPosition = RightPosition.getValue();
+    }
+
+    @Override
+    public void SetPoseTarget(double rotations)
+    {
+        LeftMotor.setControl(PoseRequest.withPosition(rotations));
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void SetClimbTarget(double rotations)
+    {
+        LeftMotor.setControl(ClimbRequest.withPosition(rotations));
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void ZeroPosition(double rotations)
+    {
+        LeftMotor.setPosition(rotations);
+    }
+
+    @Override
+    public void SetNeutralMode(NeutralModeValue mode)
+    {
+        DeviceConfigurator.SetNeutralMode(LeftMotor, mode);
+        DeviceConfigurator.SetNeutralMode(RightMotor, mode);
+    }
+
+    private TalonFX CreateMotor(String name, int deviceID)
+    {
+        var motor = new TalonFX(deviceID, Constants.CanivoreBusIDs.BusName);
+
+        var configs = new TalonFXConfiguration();
+
+        configs.withSlot0(
+            new Slot0Configs()
+                .withGravityType(GravityTypeValue.Arm_Cosine)
+                .withKP(PosePID.GetP())
+                .withKI(PosePID.GetI())
+                .withKD(PosePID.GetD())
+                .withKS(0)
+                .withKA(0)
+                .withKV(0)
+                .withKG(8));
+
+        configs.withSlot1(
+            new Slot1Configs()
+                .withGravityType(GravityTypeValue.Arm_Cosine)
+                .withKP(ClimbPID.GetP())
+                .withKI(ClimbPID.GetI())
+                .withKD(ClimbPID.GetD())
+                .withKS(8)
+                .withKA(0)
+                .withKV(0)
+                .withKG(27));
+
+        configs.withMotionMagic(
+            new MotionMagicConfigs()
+                .withMotionMagicAcceleration(0)
+                .withMotionMagicCruiseVelocity(Constants.Arm.kArmCruiseVelocity)
+                .withMotionMagicExpo_kA(Constants.Arm.kArmExpoKA)
+                .withMotionMagicExpo_kV(Constants.Arm.kArmExpoKV)
+                .withMotionMagicJerk(1000));
+
+        configs.withFeedback(
+            new FeedbackConfigs()
+                .withSensorToMechanismRatio(117.6));
+
+        configs.withMotorOutput(
+            new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake));
+
+        configs.withSoftwareLimitSwitch(
+            new SoftwareLimitSwitchConfigs()
+                .withForwardSoftLimitEnable(true)
+                .withForwardSoftLimitThreshold(ArmSubsystem.UpperLimit)
+                .withReverseSoftLimitEnable(true)
+                .withReverseSoftLimitThreshold(ArmSubsystem.LowerLimit));
+
+        // -- Zeroing and live tuning wait for the config, the position is in mechanism rotations
+        DeviceConfigurator.Configure(name, motor, configs).thenRun(() ->
+        {
+            motor.setPosition(ArmSubsystem.LowerLimit);
+            PosePID.configureMotorPID(motor);
+            ClimbPID.configureMotorPID(motor);
+        });
+
+        return motor;
+    }
+}
@@ -1,27 +1,27 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.configs.*;
-import com.ctre.phoenix6.controls.*;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.signals.GravityTypeValue;
-import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
-import frc.robot.constants.Constants;
+import frc.robot.LatencyTracer;
+import frc.robot.LoopProfiler;
 import frc.robot.RobotContainer;
+import frc.robot.Telemetry;
+import frc.robot.io.InputLog;
 
 public class ArmSubsystem extends SubsystemBase
 {
     private static final double ArmTolerance = 15.0 / 360.0;
-    private static final double LowerLimit = -0.12;
-    private static final double UpperLimit = 0.28;
+    static final double LowerLimit = -0.12;
+    static final double UpperLimit = 0.28;
 
     private double ManualArmControlTarget = 0;
 
+    // -- Last motion profiled target, NaN after a climb target or a re-zero
+    private double PoseTarget = Double.NaN;
+
     public enum EArmPosition {
         Stowed(LowerLimit),
         Shoot_speaker(-0.058), //TODO: Og .078
@@ -39,125 +39,121 @@ public class ArmSubsystem extends SubsystemBase
         }
     }
 
-    // -- Motors
-    private TalonFX LeftMotor;
-    private TalonFX RightMotor;
-    private final MotionMagicExpoTorqueCurrentFOC PoseRequest =
-        new MotionMagicExpoTorqueCurrentFOC(LowerLimit)
-            .withSlot(0);
-    private final PositionTorqueCurrentFOC ClimbRequest =
-        new PositionTorqueCurrentFOC(LowerLimit)
-            .withSlot(1);
+    // -- Hardware
+    private final ArmIO IO;
+    private final ArmIO.ArmIOInputs Inputs = new ArmIO.ArmIOInputs();
+    private final InputLog.Handle InputsLog = InputLog.Register("Arm", Inputs);
+    private final LoopProfiler.Section PeriodicSection = LoopProfiler.GetSection("Arm.Periodic");
+
+
+    // -- Telemetry
+    private final Telemetry.DoubleChannel TargetTelemetry = Telemetry.AddDouble("Arm.Target", Telemetry.ELevel.Match, 1);
+    private final Telemetry.DoubleChannel ErrorTelemetry = Telemetry.AddDouble("Arm.Error", Telemetry.ELevel.Debug, 1);
 
 
     public ArmSubsystem()
     {
-        LeftMotor = CreateMotor(Constants.CanivoreBusIDs.ArmLeft.GetID());
+        this(switch (InputLog.GetMode())
+        {
+            case Real -> new ArmIOTalonFX();
+            case Sim -> new ArmIOSim();
+            case Replay -> new ArmIO() {};
+        });
+    }
 
-        RightMotor = CreateMotor(Constants.CanivoreBusIDs.ArmRight.GetID());
-        RightMotor.setControl(new Follower(Constants.CanivoreBusIDs.ArmLeft.GetID(), true));
+    public ArmSubsystem(ArmIO io)
+    {
+        IO = io;
+        LatencyTracer.RegisterActuator(IO, this);
+        ApplyPoseTarget(EArmPosition.Stowed.Rotations);
 
-        LeftMotor.setControl(PoseRequest.withPosition(EArmPosition.Stowed.Rotations));
+        Telemetry.AddDouble("Arm.PositionL", Telemetry.ELevel.Match, 1, this::GetArmPosition);
+        Telemetry.AddDouble("Arm.PositionR", Telemetry.ELevel.Debug, 2, () -> Inputs.RightPosition);
+    }
+
+    @Override
+    public void periodic()
+    {
+        LoopProfiler.Start(PeriodicSection);
+        IO.UpdateInputs(Inputs);
+        InputsLog.Process();
+        LoopProfiler.Stop(PeriodicSection);
     }
 
 
 
-    public double GetArmPosition() { return LeftMotor.getPosition().getValue(); }
+    public double GetArmPosition() { return Inputs.LeftPosition; }
+
+    /**
+     * @return The last motion profiled target, NaN if the arm has since been given a climb target or re-zeroed
+     */
+    public double GetPoseTarget() { return PoseTarget; }
+
+    private void ApplyPoseTarget(double rotations)
+    {
+        PoseTarget = rotations;
+        IO.SetPoseTarget(rotations);
+    }
 
+    private void ApplyClimbTarget(double rotations)
+    {
+        PoseTarget = Double.NaN;
+        IO.SetClimbTarget(rotations);
+    }
 
+    /**
+     * Streams a new target to the arm without going through a command. Used to track a moving setpoint
+     * (e.g. while aiming) where re-scheduling a command every loop would be wasteful.
+     */
+    public void SetTargetPosition(double armPosition)
+    {
+        ApplyPoseTarget(MathUtil.clamp(armPosition, LowerLimit, UpperLimit));
+    }
 
-    private TalonFX CreateMotor(int deviceID)
+    public boolean IsNearPosition(double armPosition, double tolerance)
     {
-        var motor = new TalonFX(deviceID, Constants.CanivoreBusIDs.BusName);
-
-        var configs = new TalonFXConfiguration();
-
-        configs.withSlot0(
-            new Slot0Configs()
-                .withGravityType(GravityTypeValue.Arm_Cosine)
-                .withKP(300)
-                .withKI(0)
-                .withKD(65)
-                .withKS(0)
-                .withKA(0)
-                .withKV(0)
-                .withKG(8));
-
-        configs.withSlot1(
-            new Slot1Configs()
-                .withGravityType(GravityTypeValue.Arm_Cosine)
-                .withKP(2000)
-                .withKI(0) //TODO: add some KI to make sure we fully climb (probably about 150ish)
-                .withKD(65)
-                .withKS(8)
-                .withKA(0)
-                .withKV(0)
-                .withKG(27));
-
-        configs.withMotionMagic(
-            new MotionMagicConfigs()
-                .withMotionMagicAcceleration(0)
-                .withMotionMagicCruiseVelocity(5)
-                .withMotionMagicExpo_kA(3)
-                .withMotionMagicExpo_kV(5)
-                .withMotionMagicJerk(1000));
-
-        configs.withFeedback(
-            new FeedbackConfigs()
-                .withSensorToMechanismRatio(117.6));
-
-        configs.withMotorOutput(
-            new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake));
-
-        configs.withSoftwareLimitSwitch(
-            new SoftwareLimitSwitchConfigs()
-                .withForwardSoftLimitEnable(true)
-                .withForwardSoftLimitThreshold(UpperLimit)
-                .withReverseSoftLimitEnable(true)
-                .withReverseSoftLimitThreshold(LowerLimit));
-
-        motor.getConfigurator().apply(configs);
-
-        motor.setPosition(LowerLimit);
-        return motor;
+        var pos = MathUtil.clamp(armPosition, LowerLimit, UpperLimit);
+        return MathUtil.isNear(pos, GetArmPosition(), tolerance);
     }
 
+
+
     public Command Command_SetPosition(EArmPosition position) {
         return Command_GoToPosition(position.Rotations);
     }
 
     public Command Command_Climb()
     {
-        return runOnce(() -> LeftMotor.setControl(ClimbRequest.withPosition(LowerLimit)));
+        return runOnce(() -> ApplyClimbTarget(LowerLimit));
     }
 
     public Command Command_ZeroArmEncoder()
     {
-       return runOnce(() -> LeftMotor.setPosition(LowerLimit)).ignoringDisable(true);
+       return runOnce(() ->
+           {
+               PoseTarget = Double.NaN;
+               IO.ZeroPosition(LowerLimit);
+           })
+           .ignoringDisable(true);
     }
 
     public Command Command_ManualArmControl()
     {
-        return runOnce(() -> ManualArmControlTarget = LeftMotor.getPosition().getValue())
+        return runOnce(() -> ManualArmControlTarget = GetArmPosition())
             .andThen(run(() ->
             {
                 double y = RobotContainer.Operator.getLeftY() * 0.001;
                 if (Math.abs(y) < 0.001) { return; }
 
                 ManualArmControlTarget = MathUtil.clamp(ManualArmControlTarget + y, LowerLimit, UpperLimit);
-                //LeftMotor.setControl(PoseRequest.withPosition(ManualArmControlTarget));
-                LeftMotor.setControl(ClimbRequest.withPosition(ManualArmControlTarget));
+                //IO.SetPoseTarget(ManualArmControlTarget);
+                ApplyClimbTarget(ManualArmControlTarget);
             }));
     }
 
     public Command Command_SetNeutralMode(NeutralModeValue mode)
     {
-        return runOnce(() -> {
-            LeftMotor.setNeutralMode(mode);
-            RightMotor.setNeutralMode(mode);
-        }).ignoringDisable(true);
+        return runOnce(() -> IO.SetNeutralMode(mode)).ignoringDisable(true);
     }
 
     public Command Command_GoToPosition(double armPosition)
@@ -166,22 +162,15 @@ public class ArmSubsystem extends SubsystemBase
         return
             run(() ->
                 {
-                    SmartDashboard.putNumber("Arm.Target", pos);
-                    LeftMotor.setControl(PoseRequest.withPosition(pos));
+                    TargetTelemetry.Set(pos);
+                    ApplyPoseTarget(pos);
                 })
                 .until(() ->
                        {
-                           double actualRotation = LeftMotor.getPosition().getValue();
-                           SmartDashboard.putNumber("Arm.Error", pos - actualRotation);
+                           double actualRotation = GetArmPosition();
+                           ErrorTelemetry.Set(pos - actualRotation);
                            return MathUtil.isNear(pos, actualRotation, ArmTolerance);
                        });
     }
 
-    @Override
-    public void periodic()
-    {
-        SmartDashboard.putNumber("Arm.PositionL", LeftMotor.getPosition().getValue());
-        SmartDashboard.putNumber("Arm.PositionR", RightMotor.getPosition().getValue());
-    }
-
 }
\ No newline at end of file
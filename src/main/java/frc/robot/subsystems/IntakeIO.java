@@ -0,0 +1,68 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.signals.NeutralModeValue;
+
+import frc.robot.io.LoggableInputs;
+
+/**
+ * Everything IntakeSubsystem reads from and writes to hardware, see ArmIO
+ */
+public interface IntakeIO
+{
+    class IntakeIOInputs implements LoggableInputs
+    {
+        public double PivotPosition;        // -- Mechanism rotations
+        public double IntakeVelocity;       // -- Rotations/s
+        public double IntakeStatorCurrent;  // -- Amps
+        public double FeederVelocity;       // -- RPM
+        public double FeederCurrent;        // -- Amps
+        public boolean LeftSwitch;
+        public boolean RightSwitch;
+
+        @Override
+        public String[] GetFieldNames()
+        {
+            return new String[] {
+                "PivotPosition", "IntakeVelocity", "IntakeStatorCurrent", "FeederVelocity", "FeederCurrent",
+                "LeftSwitch", "RightSwitch" };
+        }
+
+        @Override
+        public void ToLog(double[] values)
+        {
+            values[0] = PivotPosition;
+            values[1] = IntakeVelocity;
+            values[2] = IntakeStatorCurrent;
+            values[3] = FeederVelocity;
+            values[4] = FeederCurrent;
+            values[5] = LeftSwitch ? 1 : 0;
+            values[6] = RightSwitch ? 1 : 0;
+        }
+
+        @Override
+        public void FromLog(double[] values)
+        {
+            PivotPosition = values[0];
+            IntakeVelocity = values[1];
+            IntakeStatorCurrent = values[2];
+            FeederVelocity = values[3];
+            FeederCurrent = values[4];
+            LeftSwitch = values[5] != 0;
+            RightSwitch = values[6] != 0;
+        }
+    }
+
+    default void UpdateInputs(IntakeIOInputs inputs) {}
+
+    default void SetPivotTarget(double rotations) {}
+
+    default void SetIntakeDutyCycle(double dutyCycle) {}
+
+    default void SetFeederDutyCycle(double dutyCycle) {}
+
+    default void StopRollers() {}
+
+    default void ZeroPivot(double rotations) {}
+
+    default void SetNeutralMode(NeutralModeValue mode) {}
+}
@@ -0,0 +1,230 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.*;
+import com.ctre.phoenix6.controls.*;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.revrobotics.*;
+
+import edu.wpi.first.wpilibj.DigitalInput;
+
+import frc.robot.CanHealthMonitor;
+import frc.robot.LatencyTracer;
+import frc.robot.constants.Constants;
+import friarLib3.utility.DeviceConfigurator;
+import friarLib3.utility.PIDParameters;
+
+/**
+ * Intake on the robot: TalonFX pivot and roller, Spark Flex feeder, two note switches
+ */
+public class IntakeIOHardware implements IntakeIO
+{
+    // -- Motors
+    private TalonFX PivotMotor;
+    private TalonFX IntakeMotor;
+    private CANSparkFlex FeederMotor;
+    private SparkPIDController FeederMotorPID;
+    private RelativeEncoder FeederEncoder;
+
+    // -- Live tunable from the dashboard
+    private final PIDParameters PivotPID = new PIDParameters(0, "Intake Pivot PID", 1500, 0, 200);
+    private final PIDParameters FeederPID = new PIDParameters(0, "Feeder PID", 0.05, 0.0000001, 0.01357, 0.000015, 0);
+
+    // -- Phoenix Requests
+    private final MotionMagicExpoTorqueCurrentFOC PivotRequest = new MotionMagicExpoTorqueCurrentFOC(0);
+
+//    private final VelocityTorqueCurrentFOC IntakeRequest = new VelocityTorqueCurrentFOC(0);
+
+    private final DutyCycleOut IntakeRequest = new DutyCycleOut(0);
+
+    private final DigitalInput LeftSwitch = new DigitalInput(1);
+    private final DigitalInput RightSwitch = new DigitalInput(2);
+
+    // -- Read together once per loop
+    private final StatusSignal<Double> PivotPosition;
+    private final StatusSignal<Double> IntakeVelocity;
+    private final StatusSignal<Double> IntakeStatorCurrent;
+
+
+    public IntakeIOHardware()
+    {
+        CreatePivotMotor();
+        CreateIntakeMotor();
+        CreateFeederMotor();
+
+        PivotPosition = PivotMotor.getPosition();
+        IntakeVelocity = IntakeMotor.getVelocity();
+        IntakeStatorCurrent = IntakeMotor.getStatorCurrent();
+
+        CanHealthMonitor.Register("Intake.PivotPosition", PivotPosition);
+        CanHealthMonitor.Register("Intake.IntakeVelocity", IntakeVelocity);
+        CanHealthMonitor.Register("Intake.IntakeStatorCurrent", IntakeStatorCurrent);
+    }
+
+    @Override
+    public void UpdateInputs(IntakeIOInputs inputs)
+    {
+        BaseStatusSignal.refreshAll(PivotPosition, IntakeVelocity, IntakeStatorCurrent);
+
+        inputs.PivotPosition = PivotPosition.getValue();
+        inputs.IntakeVelocity = IntakeVelocity.getValue();
+        inputs.IntakeStatorCurrent = IntakeStatorCurrent.getValue();
+        inputs.FeederVelocity = FeederEncoder.getVelocity();
+        inputs.FeederCurrent = FeederMotor.getOutputCurrent();
+        inputs.LeftSwitch = LeftSwitch.get();
+        inputs.RightSwitch = RightSwitch.get();
+    }
+
+    @Override
+    public void SetPivotTarget(double rotations)
+    {
+        PivotMotor.setControl(PivotRequest.withPosition(rotations));
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void SetIntakeDutyCycle(double dutyCycle)
+    {
+        IntakeMotor.setControl(IntakeRequest.withOutput(dutyCycle));
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void SetFeederDutyCycle(double dutyCycle)
+    {
+        FeederMotor.set(dutyCycle);
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void StopRollers()
+    {
+        IntakeMotor.stopMotor();
+        FeederMotor.stopMotor();
+        LatencyTracer.Actuated(this);
+    }
+
+    @Override
+    public void ZeroPivot(double rotations)
+    {
+        PivotMotor.setPosition(rotations);
+    }
+
+    @Override
+    public void SetNeutralMode(NeutralModeValue mode)
+    {
+        DeviceConfigurator.SetNeutralMode(PivotMotor, mode);
+    }
+
+    // --------------------------------------------------------------------------------------------
+    // -- Pivot Motor
+    // --------------------------------------------------------------------------------------------
+    private void CreatePivotMotor()
+    {
+        PivotMotor = new TalonFX(Constants.CanivoreBusIDs.IntakePivot.GetID(), Constants.CanivoreBusIDs.BusName);
+
+        var configs = new TalonFXConfiguration();
+
+        configs.withMotorOutput(
+            new MotorOutputConfigs()
+                .withInverted(InvertedValue.Clockwise_Positive)
+                .withNeutralMode(NeutralModeValue.Brake));
+
+        configs.withSlot0(
+            new Slot0Configs()
+                .withGravityType(GravityTypeValue.Arm_Cosine)
+                .withKP(PivotPID.GetP())
+                .withKI(PivotPID.GetI())
+                .withKD(PivotPID.GetD())
+                .withKS(10)
+                .withKA(0)
+                .withKV(0)
+                .withKG(22));
+
+        configs.withMotionMagic(
+            new MotionMagicConfigs()
+                .withMotionMagicAcceleration(0)
+                .withMotionMagicCruiseVelocity(Constants.Intake.kPivotCruiseVelocity)
+                .withMotionMagicExpo_kA(Constants.Intake.kPivotExpoKA)
+                .withMotionMagicExpo_kV(Constants.Intake.kPivotExpoKV)
+                .withMotionMagicJerk(1000));
+
+        configs.withFeedback(
+            new FeedbackConfigs()
+                .withSensorToMechanismRatio(60));
+
+
+        configs.withSoftwareLimitSwitch(
+            new SoftwareLimitSwitchConfigs()
+                .withForwardSoftLimitEnable(true)
+                .withForwardSoftLimitThreshold(IntakeSubsystem.PivotLimitForward)
+                .withReverseSoftLimitEnable(true)
+                .withReverseSoftLimitThreshold(IntakeSubsystem.PivotLimitReverse));
+
+        DeviceConfigurator.Configure("Intake.Pivot", PivotMotor, configs).thenRun(() ->
+        {
+            PivotMotor.setPosition(IntakeSubsystem.PivotLimitReverse);
+            PivotPID.configureMotorPID(PivotMotor);
+        });
+    }
+
+    // --------------------------------------------------------------------------------------------
+    // -- Intake Motor
+    // --------------------------------------------------------------------------------------------
+    private void CreateIntakeMotor()
+    {
+        IntakeMotor = new TalonFX(Constants.CanivoreBusIDs.IntakeMotor.GetID(), Constants.CanivoreBusIDs.BusName);
+
+        var configs = new TalonFXConfiguration();
+
+        configs.withMotorOutput(
+            new MotorOutputConfigs()
+                .withNeutralMode(NeutralModeValue.Brake));
+
+        configs.withSlot0(
+            new Slot0Configs()
+                .withGravityType(GravityTypeValue.Elevator_Static)
+                .withKP(10)
+                .withKI(0)
+                .withKD(0)
+                .withKS(40)
+                .withKA(0)
+                .withKV(0.25)
+                .withKG(0));
+
+        DeviceConfigurator.Configure("Intake.Roller", IntakeMotor, configs);
+
+        IntakeMotor.stopMotor();
+    }
+
+    // --------------------------------------------------------------------------------------------
+    // -- Feeder Motor
+    // --------------------------------------------------------------------------------------------
+    private void CreateFeederMotor()
+    {
+        FeederMotor = new CANSparkFlex(2, CANSparkLowLevel.MotorType.kBrushless);
+
+        FeederMotorPID = FeederMotor.getPIDController();
+        FeederEncoder = FeederMotor.getEncoder();
+
+        // -- Only what differs from the controller gets written, and flash is only burned when something did
+        var config = new DeviceConfigurator.SparkConfig()
+            .withIdleMode(CANSparkBase.IdleMode.kBrake)
+            .withInverted(true)
+            .withP(FeederPID.GetP())
+            .withI(FeederPID.GetI())
+            .withD(FeederPID.GetD())
+            .withIZone(FeederPID.GetIZone())
+            .withFF(FeederPID.GetF())
+            .withOutputRange(-1, 1);
+
+        DeviceConfigurator.Configure("Intake.Feeder", FeederMotor, config)
+            .thenRun(() -> FeederPID.configureMotorPID(FeederMotor));
+
+        FeederMotor.stopMotor();
+    }
+}
@@ -0,0 +1,63 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Timer;
+
+import frc.robot.constants.Constants;
+
+/**
+ * Desktop stand-in for the intake. The pivot moves at the motion magic cruise velocity and the rollers spin at
+ * their free speed for the duty cycle they're given. No note is ever picked up, so the switches always read clear.
+ */
+public class IntakeIOSim implements IntakeIO
+{
+    // -- Same profile as IntakeIOHardware
+    private static final double PivotCruiseVelocity = Constants.Intake.kPivotCruiseVelocity;
+
+    private double PivotPosition = IntakeSubsystem.PivotLimitReverse;
+    private double PivotTarget = IntakeSubsystem.PivotLimitReverse;
+    private double IntakeDutyCycle = 0;
+    private double FeederDutyCycle = 0;
+    private double LastTime = Timer.getFPGATimestamp();
+
+    @Override
+    public void UpdateInputs(IntakeIOInputs inputs)
+    {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - LastTime;
+        LastTime = now;
+
+        PivotPosition += MathUtil.clamp(PivotTarget - PivotPosition, -PivotCruiseVelocity * dt, PivotCruiseVelocity * dt);
+
+        inputs.PivotPosition = PivotPosition;
+        inputs.IntakeVelocity = IntakeDutyCycle * IntakeSubsystem.IntakeFreeSpeed;
+        inputs.IntakeStatorCurrent = 0;
+        inputs.FeederVelocity = FeederDutyCycle * IntakeSubsystem.FeederFreeSpeed;
+        inputs.FeederCurrent = 0;
+        inputs.LeftSwitch = true;
+        inputs.RightSwitch = true;
+    }
+
+    @Override
+    public void SetPivotTarget(double rotations) { PivotTarget = rotations; }
+
+    @Override
+    public void SetIntakeDutyCycle(double dutyCycle) { IntakeDutyCycle = dutyCycle; }
+
+    @Override
+    public void SetFeederDutyCycle(double dutyCycle) { FeederDutyCycle = dutyCycle; }
+
+    @Override
+    public void StopRollers()
+    {
+        IntakeDutyCycle = 0;
+        FeederDutyCycle = 0;
+    }
+
+    @Override
+    public void ZeroPivot(double rotations)
+    {
+        PivotPosition = rotations;
+        PivotTarget = rotations;
+    }
+}
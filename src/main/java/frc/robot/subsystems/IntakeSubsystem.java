@@ -1,21 +1,19 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix6.controls.*;
-import com.ctre.phoenix6.hardware.TalonFX;
-import com.ctre.phoenix6.configs.*;
-import com.ctre.phoenix6.signals.GravityTypeValue;
-import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
-import com.revrobotics.*;
+
+import java.util.function.BooleanSupplier;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.*;
 
-import frc.robot.constants.Constants;
+import frc.robot.io.InputLog;
 import frc.robot.vision.LimelightHelpers;
+import frc.robot.LatencyTracer;
+import frc.robot.LoopProfiler;
 import frc.robot.RobotContainer;
+import frc.robot.Telemetry;
 //*TODO: Find actual poses, work out motor configurations, do commands  and logic for moving pivot
 
 
@@ -63,29 +61,33 @@ public class IntakeSubsystem extends SubsystemBase
     }
 
     private final double PivotTolerance = 15.0 / 360.0;
-    static private final double PivotLimitForward = 0.325;
-    static private final double PivotLimitReverse = -0.31;
+    static final double PivotLimitForward = 0.325;
+    static final double PivotLimitReverse = -0.31;
 
     // Since we zero on the hard stop, add this buffer to when going home, so we don't slam into the stop.
     static private final double PivotLimitReverseBuffer = 0.02;
 
+    // -- Roller readiness, used to gate stages on measured speed instead of fixed waits
+    static final double IntakeFreeSpeed = 100;              // rotations/s at full duty cycle TODO: measure
+    static final double FeederFreeSpeed = 6784;             // RPM at full duty cycle (Vortex free speed) TODO: measure
+    static private final double SpinUpFraction = 0.85;      // consider a roller spun up at this fraction of its expected speed
+    static private final double FeederFreeCurrent = 20;     // Amps, below this the feeder isn't pushing a note TODO: measure
 
-    // -- Motors
-    private TalonFX PivotMotor;
-    private TalonFX IntakeMotor;
-    private CANSparkFlex FeederMotor;
-    private SparkPIDController FeederMotorPID;
-
+    // -- Staged rollout, off until the thresholds above are measured: stages keep their old fixed durations and only
+    // -- report readiness. To finish it, run the intake and outtake with the rollers free and with a note, set the
+    // -- free speeds and current from Inputs/Intake, check Intake.Stage.[stage].ReadyTime comes in under the old
+    // -- delays and TimedOut stays false, then turn this on.
+    static private final boolean EndStagesWhenReady = false;
 
-    // -- Phoenix Requests
-    private final MotionMagicExpoTorqueCurrentFOC PivotRequest = new MotionMagicExpoTorqueCurrentFOC(0);
 
-//    private final VelocityTorqueCurrentFOC IntakeRequest = new VelocityTorqueCurrentFOC(0);
+    // -- Hardware, and what it reported this loop
+    private final IntakeIO IO;
+    private final IntakeIO.IntakeIOInputs Inputs = new IntakeIO.IntakeIOInputs();
+    private final InputLog.Handle InputsLog = InputLog.Register("Intake", Inputs);
+    private final LoopProfiler.Section PeriodicSection = LoopProfiler.GetSection("Intake.Periodic");
 
-    private final DutyCycleOut IntakeRequest = new DutyCycleOut(0);
-
-    private final DigitalInput LeftSwitch = new DigitalInput(1);
-    private final DigitalInput RightSwitch = new DigitalInput(2);
+    // -- Last pivot target, NaN after a re-zero. The pivot boots against the stop, close enough to stowed.
+    private double PivotTarget = EPivotPosition.Stowed.Rotations;
 
 
     double lastCurrent = 0;
@@ -93,117 +95,42 @@ public class IntakeSubsystem extends SubsystemBase
     boolean IsFeedingNote = false;
     boolean HasGottenNote = false;
 
+    // -- Telemetry
+    private final Telemetry.DoubleChannel PivotTargetTelemetry = Telemetry.AddDouble("Intake.PivotTarget", Telemetry.ELevel.Match, 1);
+    private final Telemetry.DoubleChannel IntakeCurrentDeltaTelemetry = Telemetry.AddDouble("Intake.currentDelta", Telemetry.ELevel.Debug, 1);
+    private final Telemetry.DoubleChannel FeederCurrentDeltaTelemetry = Telemetry.AddDouble("Intake.CurrentDelta", Telemetry.ELevel.Debug, 1);
+
     public boolean GetIsFeedingNote() { return IsFeedingNote; }
 
     public IntakeSubsystem()
     {
-        CreatePivotMotor();
-        CreateIntakeMotor();
-        CreateFeederMotor();
-
-    }
-
-    // --------------------------------------------------------------------------------------------
-    // -- Pivot Motor
-    // --------------------------------------------------------------------------------------------
-    private void CreatePivotMotor()
-    {
-        PivotMotor = new TalonFX(Constants.CanivoreBusIDs.IntakePivot.GetID(), Constants.CanivoreBusIDs.BusName);
-
-        var configs = new TalonFXConfiguration();
-
-        configs.withMotorOutput(
-            new MotorOutputConfigs()
-                .withInverted(InvertedValue.Clockwise_Positive)
-                .withNeutralMode(NeutralModeValue.Brake));
-
-        configs.withSlot0(
-            new Slot0Configs()
-                .withGravityType(GravityTypeValue.Arm_Cosine)
-                .withKP(1500)
-                .withKI(0)
-                .withKD(200)
-                .withKS(10)
-                .withKA(0)
-                .withKV(0)
-                .withKG(22));
-
-        configs.withMotionMagic(
-            new MotionMagicConfigs()
-                .withMotionMagicAcceleration(0)
-                .withMotionMagicCruiseVelocity(4)
-                .withMotionMagicExpo_kA(5)
-                .withMotionMagicExpo_kV(5)
-                .withMotionMagicJerk(1000));
-
-        configs.withFeedback(
-            new FeedbackConfigs()
-                .withSensorToMechanismRatio(60));
-
-
-        configs.withSoftwareLimitSwitch(
-            new SoftwareLimitSwitchConfigs()
-                .withForwardSoftLimitEnable(true)
-                .withForwardSoftLimitThreshold(PivotLimitForward)
-                .withReverseSoftLimitEnable(true)
-                .withReverseSoftLimitThreshold(PivotLimitReverse));
-
-        PivotMotor.getConfigurator().apply(configs);
-        PivotMotor.setPosition(PivotLimitReverse);
+        this(switch (InputLog.GetMode())
+        {
+            case Real -> new IntakeIOHardware();
+            case Sim -> new IntakeIOSim();
+            case Replay -> new IntakeIO() {};
+        });
     }
 
-    // --------------------------------------------------------------------------------------------
-    // -- Intake Motor
-    // --------------------------------------------------------------------------------------------
-    private void CreateIntakeMotor()
+    public IntakeSubsystem(IntakeIO io)
     {
-        IntakeMotor = new TalonFX(Constants.CanivoreBusIDs.IntakeMotor.GetID(), Constants.CanivoreBusIDs.BusName);
-
-        var configs = new TalonFXConfiguration();
+        IO = io;
+        LatencyTracer.RegisterActuator(IO, this);
 
-        configs.withMotorOutput(
-            new MotorOutputConfigs()
-                .withNeutralMode(NeutralModeValue.Brake));
+        Telemetry.AddDouble("Intake.CurrentSpikeCount", Telemetry.ELevel.Debug, 1, () -> currentSpikeCount);
+        Telemetry.AddDouble("Intake.PivotPosition", Telemetry.ELevel.Match, 1, this::GetPivotPos);
+        Telemetry.AddDouble("Intake.IntakeCurrent", Telemetry.ELevel.Debug, 2, () -> Inputs.IntakeStatorCurrent);
+        Telemetry.AddDouble("Intake.FeederCurrent", Telemetry.ELevel.Debug, 2, () -> Inputs.FeederCurrent);
 
-        configs.withSlot0(
-            new Slot0Configs()
-                .withGravityType(GravityTypeValue.Elevator_Static)
-                .withKP(10)
-                .withKI(0)
-                .withKD(0)
-                .withKS(40)
-                .withKA(0)
-                .withKV(0.25)
-                .withKG(0));
-
-        IntakeMotor.getConfigurator().apply(configs);
-
-        IntakeMotor.stopMotor();
     }
 
-    // --------------------------------------------------------------------------------------------
-    // -- Feeder Motor
-    // --------------------------------------------------------------------------------------------
-    private void CreateFeederMotor()
+    @Override
+    public void periodic()
     {
-        FeederMotor = new CANSparkFlex(2, CANSparkLowLevel.MotorType.kBrushless);
-
-        FeederMotor.restoreFactoryDefaults();
-        FeederMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
-        FeederMotor.setInverted(true);
-
-        FeederMotorPID = FeederMotor.getPIDController();
-
-        FeederMotorPID.setP(0.05);
-        FeederMotorPID.setI(0.0000001);
-        FeederMotorPID.setD(0.01357);
-        FeederMotorPID.setIZone(0);
-        FeederMotorPID.setFF(0.000015);
-        FeederMotorPID.setOutputRange(-1, 1);
-
-        FeederMotor.burnFlash();
-
-        FeederMotor.stopMotor();
+        LoopProfiler.Start(PeriodicSection);
+        IO.UpdateInputs(Inputs);
+        InputsLog.Process();
+        LoopProfiler.Stop(PeriodicSection);
     }
 
     // TODO: Test this change - it should fix the interrupt on let go. If it does, move the rumble
@@ -220,12 +147,84 @@ public class IntakeSubsystem extends SubsystemBase
 
     private void StopMotors()
     {
-        IntakeMotor.stopMotor();
-        FeederMotor.stopMotor();
+        IO.StopRollers();
+    }
+
+    private boolean IsIntakeAtSpeed(double dutyCycle)
+    {
+        return Math.abs(Inputs.IntakeVelocity) >= Math.abs(dutyCycle) * IntakeFreeSpeed * SpinUpFraction;
+    }
+
+    private boolean IsFeederAtSpeed(double dutyCycle)
+    {
+        return Math.abs(Inputs.FeederVelocity) >= Math.abs(dutyCycle) * FeederFreeSpeed * SpinUpFraction;
+    }
+
+    /**
+     * Waits until the mechanism reports it's ready, with the old fixed delay kept as a timeout.
+     * Until EndStagesWhenReady is on, the stage still runs for the whole old delay and only reports when it would
+     * have ended. Publishes how long the stage took, when it first saw the mechanism ready (-1 if never), and
+     * whether it timed out or was interrupted.
+     */
+    private Command Command_WaitForStage(String stageName, BooleanSupplier isReady, double timeout)
+    {
+        var timer = new Timer();
+        double minDuration = EndStagesWhenReady ? 0 : timeout;
+        double[] readyTime = { -1 };
+
+        var prefix = "Intake.Stage." + stageName + ".";
+        var timeTelemetry = Telemetry.AddDouble(prefix + "Time", Telemetry.ELevel.Match, 1);
+        var readyTimeTelemetry = Telemetry.AddDouble(prefix + "ReadyTime", Telemetry.ELevel.Match, 1);
+        var timedOutTelemetry = Telemetry.AddBoolean(prefix + "TimedOut", Telemetry.ELevel.Match, 1);
+        var interruptedTelemetry = Telemetry.AddBoolean(prefix + "Interrupted", Telemetry.ELevel.Match, 1);
+
+        return Commands.runOnce(() ->
+            {
+                timer.restart();
+                readyTime[0] = -1;
+            })
+            .andThen(Commands.waitUntil(() ->
+            {
+                if (readyTime[0] < 0 && isReady.getAsBoolean()) { readyTime[0] = timer.get(); }
+                return readyTime[0] >= 0 && timer.get() >= minDuration;
+            })
+            .withTimeout(timeout))
+            .finallyDo((interrupted) ->
+            {
+                timeTelemetry.Set(timer.get());
+                readyTimeTelemetry.Set(readyTime[0]);
+                timedOutTelemetry.Set(!interrupted && readyTime[0] < 0);
+                interruptedTelemetry.Set(interrupted);
+            });
     }
 
     public double GetPivotPos() {
-        return PivotMotor.getPosition().getValue();
+        return Inputs.PivotPosition;
+    }
+
+    /**
+     * @return The last target the pivot was given, NaN if it has been re-zeroed since
+     */
+    public double GetPivotTarget() { return PivotTarget; }
+
+    private void ApplyPivotTarget(double rotations)
+    {
+        PivotTarget = rotations;
+        IO.SetPivotTarget(rotations);
+    }
+
+    /**
+     * Streams a new target to the pivot without going through a command, see ArmSubsystem.SetTargetPosition
+     */
+    public void SetPivotTarget(double position)
+    {
+        ApplyPivotTarget(MathUtil.clamp(position, PivotLimitReverse, PivotLimitForward));
+    }
+
+    public boolean IsPivotNear(double position, double tolerance)
+    {
+        var pos = MathUtil.clamp(position, PivotLimitReverse, PivotLimitForward);
+        return MathUtil.isNear(pos, GetPivotPos(), tolerance);
     }
 
     public Command Command_SetPivotPosition(EPivotPosition position)
@@ -238,19 +237,15 @@ public class IntakeSubsystem extends SubsystemBase
         var pos = MathUtil.clamp(position, PivotLimitReverse, PivotLimitForward);
         return run(() ->
                    {
-                       SmartDashboard.putNumber("Intake.PivotTarget", pos);
-                       PivotMotor.setControl(PivotRequest.withPosition(pos));
+                       PivotTargetTelemetry.Set(pos);
+                       ApplyPivotTarget(pos);
                    })
-            .until(() ->
-                   {
-                       double actualRotation = PivotMotor.getPosition().getValue();
-                       return MathUtil.isNear(pos, actualRotation, PivotTolerance);
-                   });
+            .until(() -> MathUtil.isNear(pos, Inputs.PivotPosition, PivotTolerance));
     }
 
     public Command Command_SetNeutralMode(NeutralModeValue mode)
     {
-        return runOnce(() -> PivotMotor.setNeutralMode(mode)).ignoringDisable(true);
+        return runOnce(() -> IO.SetNeutralMode(mode)).ignoringDisable(true);
     }
 
     public Command Command_UnstickPivot()
@@ -263,15 +258,15 @@ public class IntakeSubsystem extends SubsystemBase
 
     public Command Command_IntakeNote(boolean fromSource)
     {
-        if ( RightSwitch.get() && LeftSwitch.get())
-        {
-            return Commands.sequence(
+        // -- The switches are checked when the command starts, commands are usually built before the first input update
+        return Commands.either(
+            Commands.sequence(
                     Commands.print("Intake Note starting"),
 
                     runOnce(() ->
                     {
                         IsFeedingNote = false;
-                        IntakeMotor.setControl(IntakeRequest.withOutput(fromSource ? EFeedType.Intake_FromSource.DutyCycle : EFeedType.Intake_FromGround.DutyCycle));
+                        IO.SetIntakeDutyCycle(fromSource ? EFeedType.Intake_FromSource.DutyCycle : EFeedType.Intake_FromGround.DutyCycle);
                     }),
 
                     Command_SetPivotPosition(fromSource ? EPivotPosition.Source : EPivotPosition.Intake),
@@ -283,7 +278,7 @@ public class IntakeSubsystem extends SubsystemBase
                     runOnce(() ->
                     {
                         currentSpikeCount = 0;
-                        lastCurrent = IntakeMotor.getStatorCurrent().getValue();
+                        lastCurrent = Inputs.IntakeStatorCurrent;
                         if (fromSource)
                         {
                             LimelightHelpers.setLEDMode_ForceBlink("");
@@ -292,8 +287,8 @@ public class IntakeSubsystem extends SubsystemBase
 
                     Commands.waitUntil(() ->
                     {
-                        double curCurrent = IntakeMotor.getStatorCurrent().getValue();
-                        SmartDashboard.putNumber("Intake.currentDelta", curCurrent);
+                        double curCurrent = Inputs.IntakeStatorCurrent;
+                        IntakeCurrentDeltaTelemetry.Set(curCurrent);
 
                         if (curCurrent - lastCurrent > 15)
                         {
@@ -315,11 +310,11 @@ public class IntakeSubsystem extends SubsystemBase
 
                     Commands.print("Note got - stowing"),
 
-                    runOnce(() -> PivotMotor.setControl(PivotRequest.withPosition(EPivotPosition.Stowed.Rotations))),
+                    runOnce(() -> ApplyPivotTarget(EPivotPosition.Stowed.Rotations)),
 
                     Commands.print("Slowing down intake, spinning up feeder"),
-                    runOnce(() -> IntakeMotor.setControl(IntakeRequest.withOutput(EFeedType.Intake_ToFeeder.DutyCycle))),
-                    runOnce(() -> FeederMotor.set(EFeedType.Feeder_TakeNote.DutyCycle)),
+                    runOnce(() -> IO.SetIntakeDutyCycle(EFeedType.Intake_ToFeeder.DutyCycle)),
+                    runOnce(() -> IO.SetFeederDutyCycle(EFeedType.Feeder_TakeNote.DutyCycle)),
 
                     Commands.waitSeconds(0.1).unless(() -> fromSource),
 
@@ -333,9 +328,9 @@ public class IntakeSubsystem extends SubsystemBase
                             StopMotors();
                             LimelightHelpers.setLEDMode_ForceOff("");
                         }
-                    });
-            }
-            return Commands.none();
+                    }),
+            Commands.none(),
+            () -> Inputs.RightSwitch && Inputs.LeftSwitch);
     }
 //    public Command Command_IntakeNote(boolean fromSource)
 //    {
@@ -408,19 +403,20 @@ public class IntakeSubsystem extends SubsystemBase
     public Command Command_FeederTakeNote(boolean skipWaitForSpinUp)
     {
         return Commands.sequence(
-            runOnce(() -> FeederMotor.set(EFeedType.Feeder_TakeNote.DutyCycle)),
+            runOnce(() -> IO.SetFeederDutyCycle(EFeedType.Feeder_TakeNote.DutyCycle)),
 
-            Commands.waitSeconds(0.25).unless(() -> skipWaitForSpinUp),
+            Command_WaitForStage("FeederSpinUp", () -> IsFeederAtSpeed(EFeedType.Feeder_TakeNote.DutyCycle), 0.25)
+                .unless(() -> skipWaitForSpinUp),
 
             runOnce(() -> {
                 currentSpikeCount = 0;
-                lastCurrent = FeederMotor.getOutputCurrent();
-                IntakeMotor.setControl(IntakeRequest.withOutput(EFeedType.Intake_ToFeeder.DutyCycle));
+                lastCurrent = Inputs.FeederCurrent;
+                IO.SetIntakeDutyCycle(EFeedType.Intake_ToFeeder.DutyCycle);
             }),
 
             Commands.waitUntil(() -> {
-                double curCurrent = FeederMotor.getOutputCurrent();
-                SmartDashboard.putNumber("Intake.CurrentDelta", curCurrent - lastCurrent);
+                double curCurrent = Inputs.FeederCurrent;
+                FeederCurrentDeltaTelemetry.Set(curCurrent - lastCurrent);
 
                 if (curCurrent - lastCurrent > 5)
                 {
@@ -447,7 +443,7 @@ public class IntakeSubsystem extends SubsystemBase
            if (!HasGottenNote)
            {
                StopMotors();
-               PivotMotor.setControl(PivotRequest.withPosition(EPivotPosition.Stowed.Rotations));
+               ApplyPivotTarget(EPivotPosition.Stowed.Rotations);
            }
        });
     }
@@ -456,8 +452,8 @@ public class IntakeSubsystem extends SubsystemBase
     {
         return startEnd(
             () -> {
-                IntakeMotor.setControl(IntakeRequest.withOutput(forward ? -0.5: 0.5));
-                FeederMotor.set(forward ? 0.3: -0.3);
+                IO.SetIntakeDutyCycle(forward ? -0.5: 0.5);
+                IO.SetFeederDutyCycle(forward ? 0.3: -0.3);
             },
             () -> StopMotors()
         );
@@ -466,11 +462,16 @@ public class IntakeSubsystem extends SubsystemBase
 
     public Command Command_Outtake(EOuttakeType outtakeType)
     {
+        double feederDutyCycle = 0.5;
         return Commands.sequence(
-            runOnce(() -> IntakeMotor.setControl(IntakeRequest.withOutput(outtakeType.DutyCycle))),
-            Commands.waitSeconds(0.25),
-            runOnce(() -> FeederMotor.set(0.5)),
-            Commands.waitSeconds(0.5),
+            runOnce(() -> IO.SetIntakeDutyCycle(outtakeType.DutyCycle)),
+            Command_WaitForStage("OuttakeSpinUp", () -> IsIntakeAtSpeed(outtakeType.DutyCycle), 0.25),
+            runOnce(() -> IO.SetFeederDutyCycle(feederDutyCycle)),
+
+            // -- The note is gone once the feeder is spinning freely again
+            Command_WaitForStage("OuttakeRelease",
+                () -> IsFeederAtSpeed(feederDutyCycle) && Inputs.FeederCurrent < FeederFreeCurrent,
+                0.5),
             Command_StopIntake()
         );
     }
@@ -484,19 +485,12 @@ public class IntakeSubsystem extends SubsystemBase
 
     public Command Command_ZeroPivotEncoder()
     {
-        return runOnce(() -> PivotMotor.setPosition(PivotLimitReverse))
+        return runOnce(() ->
+            {
+                PivotTarget = Double.NaN;
+                IO.ZeroPivot(PivotLimitReverse);
+            })
             .ignoringDisable(true);
     }
 
-    public void periodic()
-    {
-        SmartDashboard.putNumber("Intake.CurrentSpikeCount", currentSpikeCount);
-        SmartDashboard.putNumber("Intake.PivotPosition", PivotMotor.getPosition().getValue());
-        SmartDashboard.putNumber("Intake.IntakeCurrent", IntakeMotor.getStatorCurrent().getValue());
-        SmartDashboard.putNumber("Intake.FeederCurrent", FeederMotor.getOutputCurrent());
-
-    }
-
-
-
 }
@@ -1,5 +1,6 @@
 package frc.robot.subsystems;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 
@@ -23,6 +24,12 @@ public class PoseManager
     private ArmSubsystem Arm;
     private IntakeSubsystem Intake;
 
+    // -- The last pose we fully reached. None if we were interrupted and don't know where the joints are
+    private EPose CurrentPose = EPose.Stowed;
+
+    // -- How close the joints' targets have to be to a pose's for us to still be in it
+    private static final double TargetTolerance = 1e-6;
+
 
 
     public PoseManager(ArmSubsystem arm, IntakeSubsystem intake)
@@ -31,6 +38,51 @@ public class PoseManager
         Intake = intake;
     }
 
+    /**
+     * @return The last pose we reached, or None if we were interrupted or something else has moved the arm or
+     * pivot since
+     */
+    public EPose GetCurrentPose()
+    {
+        if (CurrentPose != EPose.None && !IsHoldingPose(CurrentPose))
+        {
+            CurrentPose = EPose.None;
+        }
+        return CurrentPose;
+    }
+
+    // -- Anything that moves the arm or pivot outside PoseManager changes their targets, so compare against those
+    private boolean IsHoldingPose(EPose pose)
+    {
+        return MathUtil.isNear(GetArmPosition(pose).Rotations, Arm.GetPoseTarget(), TargetTolerance)
+            && MathUtil.isNear(GetPivotPosition(pose).Rotations, Intake.GetPivotTarget(), TargetTolerance);
+    }
+
+    private static ArmSubsystem.EArmPosition GetArmPosition(EPose pose)
+    {
+        switch (pose)
+        {
+            case Amp:       return ArmSubsystem.EArmPosition.Amp;
+            case Speaker:   return ArmSubsystem.EArmPosition.Shoot_speaker;
+            case PreClimb:  return ArmSubsystem.EArmPosition.Climb_FirstPos;
+            case Source:    return ArmSubsystem.EArmPosition.Source;
+            default:        return ArmSubsystem.EArmPosition.Stowed;
+        }
+    }
+
+    private static IntakeSubsystem.EPivotPosition GetPivotPosition(EPose pose)
+    {
+        switch (pose)
+        {
+            case Intake:    return IntakeSubsystem.EPivotPosition.Intake;
+            case Amp:       return IntakeSubsystem.EPivotPosition.Amp;
+            case Speaker:   return IntakeSubsystem.EPivotPosition.Shoot_speaker;
+            case PreClimb:  return IntakeSubsystem.EPivotPosition.Climb;
+            case Source:    return IntakeSubsystem.EPivotPosition.Source;
+            default:        return IntakeSubsystem.EPivotPosition.Stowed;
+        }
+    }
+
     public EPose GetPoseForCurrentTag()
     {
         var target = Vision.GetBestTarget();
@@ -59,6 +111,16 @@ public class PoseManager
     {
         if (pose == EPose.None) { return Commands.none(); }
 
+        return Command_GoToPoseSequenced(pose)
+            .finallyDo((interrupted) -> CurrentPose = interrupted ? EPose.None : pose);
+    }
+
+    /**
+     * Fixed orderings and stagger delays that are known not to collide
+     */
+    private Command Command_GoToPoseSequenced(EPose pose)
+    {
+
         if (pose == EPose.Stowed)
         {
             return Commands.parallel(
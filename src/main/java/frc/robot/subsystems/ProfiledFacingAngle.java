@@ -0,0 +1,147 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.mechanisms.swerve.SwerveModule;
+import com.ctre.phoenix6.mechanisms.swerve.SwerveRequest;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+import frc.robot.constants.Constants;
+
+/**
+ * Field centric drive that holds a heading, like SwerveRequest.FieldCentricFacingAngle, but the heading follows a
+ * trapezoid profile so big turns don't overshoot. Runs inside the drivetrain's odometry thread, so the heading loop
+ * closes at odometry rate instead of every 20ms.
+ *
+ * The profile is seeded with the current gyro rate when a lock starts, and the profile velocity is fed forward.
+ * Each update steps the profile by the odometry thread's measured period, so a changed odometry rate or a late update
+ * doesn't bend the profile. The D term works on the gyro rate for the same reason.
+ * Values set from the main loop are volatile since apply() runs on the odometry thread.
+ */
+public class ProfiledFacingAngle implements SwerveRequest
+{
+    private static final double RateTolerance = Math.toRadians(10); // radians/s, must be below this to count as settled
+
+    private final SwerveRequest.FieldCentric DriveRequest = new SwerveRequest.FieldCentric();
+    private final TrapezoidProfile Profile;
+    private final double kP;
+    private final double kI;
+    private final double kD;
+    private final double Tolerance;
+
+    private volatile double VelocityX;
+    private volatile double VelocityY;
+    private volatile double TargetHeading; // radians, field relative
+    private volatile boolean ResetRequested = true;
+
+    // -- Odometry thread only
+    private TrapezoidProfile.State Setpoint = new TrapezoidProfile.State();
+    private double ErrorIntegral;
+
+    // -- Settle metrics
+    private double LockStartTime;
+    private boolean Settled;
+    private volatile boolean AtGoal;
+    private volatile double LastSettleTime = -1;
+
+
+    /**
+     * @param tolerance Heading tolerance in radians
+     */
+    public ProfiledFacingAngle(double tolerance)
+    {
+        var gains = Constants.Drive.HOLONOMIC_CONTROLLER_PID_ROTATIONAL_CONSTRAINTS;
+        kP = gains.kP;
+        kI = gains.kI;
+        kD = gains.kD;
+        Tolerance = tolerance;
+
+        Profile = new TrapezoidProfile(
+            new TrapezoidProfile.Constraints(
+                Math.toRadians(Constants.Drive.MAX_AUTON_ANGULAR_SPEED),
+                Math.toRadians(Constants.Drive.MAX_AUTON_ANGULAR_ACCELERATION)));
+    }
+
+    public ProfiledFacingAngle withVelocityX(double velocityX)
+    {
+        VelocityX = velocityX;
+        return this;
+    }
+
+    public ProfiledFacingAngle withVelocityY(double velocityY)
+    {
+        VelocityY = velocityY;
+        return this;
+    }
+
+    public ProfiledFacingAngle withTargetHeading(double radians)
+    {
+        TargetHeading = radians;
+        return this;
+    }
+
+    /**
+     * Restart the profile from the robot's current heading and rate on the next update, and restart the settle timer
+     */
+    public void RequestReset()
+    {
+        ResetRequested = true;
+        AtGoal = false;
+    }
+
+    public boolean IsAtGoal() { return AtGoal; }
+
+    /**
+     * @return Seconds from the last reset until the heading settled, or -1 if it hasn't settled yet
+     */
+    public double GetLastSettleTime() { return LastSettleTime; }
+
+    @Override
+    public StatusCode apply(SwerveControlRequestParameters parameters, SwerveModule... modulesToApply)
+    {
+        double heading = parameters.currentPose.getRotation().getRadians();
+        double gyroRate = parameters.currentChassisSpeed.omegaRadiansPerSecond;
+        double dt = parameters.updatePeriod;
+
+        if (ResetRequested)
+        {
+            ResetRequested = false;
+            Setpoint = new TrapezoidProfile.State(heading, gyroRate);
+            ErrorIntegral = 0;
+            LockStartTime = parameters.timestamp;
+            LastSettleTime = -1;
+            Settled = false;
+        }
+
+        // -- Continuous input: take the short way around from the current setpoint
+        double goal = Setpoint.position + MathUtil.angleModulus(TargetHeading - Setpoint.position);
+        Setpoint = Profile.calculate(dt, Setpoint, new TrapezoidProfile.State(goal, 0));
+
+        double error = MathUtil.angleModulus(Setpoint.position - heading);
+        ErrorIntegral += error * dt;
+
+        double rotationRate = Setpoint.velocity
+            + kP * error
+            + kI * ErrorIntegral
+            + kD * (Setpoint.velocity - gyroRate);
+
+        boolean atGoal = Math.abs(MathUtil.angleModulus(goal - heading)) < Tolerance
+            && Math.abs(goal - Setpoint.position) < 1e-9
+            && Math.abs(gyroRate) < RateTolerance;
+
+        // -- Settle time first, so anyone who sees AtGoal also sees the time it took
+        if (atGoal && !Settled)
+        {
+            Settled = true;
+            LastSettleTime = parameters.timestamp - LockStartTime;
+        }
+        AtGoal = atGoal;
+
+        return DriveRequest
+            .withVelocityX(VelocityX)
+            .withVelocityY(VelocityY)
+            .withRotationalRate(rotationRate)
+            .apply(parameters, modulesToApply);
+    }
+}
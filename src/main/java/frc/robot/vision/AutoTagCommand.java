@@ -2,15 +2,17 @@ package frc.robot.vision;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.math.geometry.Pose3d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 
+import frc.robot.Telemetry;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
-import friarLib3.math.FriarMath;
+import frc.robot.subsystems.ProfiledFacingAngle;
 
 
 public class AutoTagCommand extends Command
@@ -25,9 +27,65 @@ public class AutoTagCommand extends Command
 
     boolean HasNote;
 
+    // -- When set, the arm and pivot track the shot setpoint while we aim, and we shoot as soon as everything is ready
+    final boolean PrePositionForSpeaker;
+    boolean HasPrePositioned;
+    static final double ShotArmTolerance = 0.01;
+    static final double ShotPivotTolerance = 0.01;
+    Debouncer ShotReadyDebounce = new Debouncer(0.06);
+
+    // -- Aim from where the robot will be when the note arrives, so we can shoot without stopping.
+    // -- Off until the release delay and note speed are measured: the serialized path below waits for the arm or
+    // -- pivot plus 0.5 s before shooting, so a 0.1 s release delay would shift every shot.
+    static final boolean CompensateShotForMotion = false;
+    final ShotSolver Solver = new ShotSolver(0.1, 12); // TODO: measure release delay and note speed
+
+    // -- When set, speaker aiming uses the profiled heading lock in the odometry thread instead of AimPID
+    final boolean UseProfiledHeading;
+    final ProfiledFacingAngle HeadingRequest = new ProfiledFacingAngle(Math.toRadians(2));
+
+    // -- Settle time from starting to aim until aimed, comparable between both heading controllers
+    double AimStartTime;
+    boolean HasReportedSettle;
+
+    // -- Telemetry
+    static final Telemetry.DoubleChannel FlightTimeTelemetry = Telemetry.AddDouble("AutoTag.speaker.flightTime", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel DistTelemetry = Telemetry.AddDouble("AutoTag.speaker.dist", Telemetry.ELevel.Match, 1);
+    static final Telemetry.DoubleChannel YTelemetry = Telemetry.AddDouble("AutoTag.speaker.y", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel ArmTelemetry = Telemetry.AddDouble("AutoTag.speaker.arm", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel PivotTelemetry = Telemetry.AddDouble("AutoTag.speaker.pivot", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel ThetaTelemetry = Telemetry.AddDouble("AutoTag.speaker.theta", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel RobotAngleTelemetry = Telemetry.AddDouble("AutoTag.speaker.robotAngle", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel SettleTimeTelemetry = Telemetry.AddDouble("AutoTag.aim.settleTime", Telemetry.ELevel.Match, 1);
+    static final Telemetry.DoubleChannel SettleTimeOdometryTelemetry = Telemetry.AddDouble("AutoTag.aim.settleTimeOdometry", Telemetry.ELevel.Match, 1);
+    static final Telemetry.DoubleChannel PosXTelemetry = Telemetry.AddDouble("AutoTag.posX", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel PosYTelemetry = Telemetry.AddDouble("AutoTag.posY", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel AngleYTelemetry = Telemetry.AddDouble("AutoTag.angleY", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.DoubleChannel RotationRateTelemetry = Telemetry.AddDouble("AutoTag.rotationRate", Telemetry.ELevel.Debug, 1);
+    static final Telemetry.BooleanChannel ReadyTelemetry = Telemetry.AddBoolean("AutoTag.speaker.ready", Telemetry.ELevel.Match, 1);
+
 
     public AutoTagCommand()
     {
+        this(false, false);
+    }
+
+    public AutoTagCommand(boolean prePositionForSpeaker)
+    {
+        this(prePositionForSpeaker, false);
+    }
+
+    public AutoTagCommand(boolean prePositionForSpeaker, boolean useProfiledHeading)
+    {
+        PrePositionForSpeaker = prePositionForSpeaker;
+        UseProfiledHeading = useProfiledHeading;
+
+        // -- Pre-positioning streams arm and pivot setpoints every loop, so own them while we do
+        if (PrePositionForSpeaker)
+        {
+            addRequirements(RobotContainer.Get().Arm, RobotContainer.Get().Intake);
+        }
+
         AimPID.setTolerance(5);
         YPID.setTolerance(.025);
         XPID.setTolerance(.08);
@@ -38,6 +96,12 @@ public class AutoTagCommand extends Command
     {
         IsShooting = false;
         HasNote = false;
+        HasPrePositioned = false;
+        ShotReadyDebounce.calculate(false);
+
+        HeadingRequest.RequestReset();
+        AimStartTime = Timer.getFPGATimestamp();
+        HasReportedSettle = false;
     }
 
     @Override
@@ -84,70 +148,99 @@ public class AutoTagCommand extends Command
 
     private void ExecuteSpeaker()
     {
-        double minDist = 1.52;
-        //double crossOver = 2.3;
-        double crossOver = 2.45;
-        double maxDist = 4.28; // Might have to change. OG: 3
-
-        double minArmRot = -0.058; // OG: -.07
-        double maxArmRot = ArmSubsystem.EArmPosition.Stowed.Rotations + 0.01;
+        // -- Distances and setpoints come from deploy/shotmap.csv, and can be retuned live
+        var shotMap = ShotMap.Get();
+        double minDist = shotMap.GetMinDistance();
+        double crossOver = shotMap.GetCrossover();
+        double maxDist = shotMap.GetMaxDistance();
 
+        double minArmRot = shotMap.GetArm(minDist);
         double minPivRot = IntakeSubsystem.EPivotPosition.Stowed.Rotations;
-        //double maxPivRot = -0.286; //OG
-        double maxPivRot = -0.265;
-        //double maxPivRot = -0.290;
 
 
         // -- Auto Moving Arm
         Pose3d pose = CurrentTarget.getRobotPose_TargetSpace();
         var x = pose.getTranslation().getZ();
         var y = pose.getTranslation().getX();
-        var dist = Math.sqrt((x * x) + (y * y));
-        dist = MathUtil.clamp(dist, minDist, maxDist);
-        SmartDashboard.putNumber("AutoTag.speaker.dist", dist);
-        SmartDashboard.putNumber("AutoTag.speaker.y", y);
+        var robotAngle = pose.getRotation().getY();
+
+        if (CompensateShotForMotion)
+        {
+            var speeds = RobotContainer.Get().drivetrain.getCurrentRobotChassisSpeeds();
+            Solver.Solve(x, y, robotAngle, speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
+        }
+        else
+        {
+            Solver.Solve(x, y, robotAngle, 0, 0);
+        }
+        FlightTimeTelemetry.Set(Solver.GetFlightTime());
+
+        var dist = MathUtil.clamp(Solver.GetDistance(), minDist, maxDist);
+        DistTelemetry.Set(dist);
+        YTelemetry.Set(y);
 
         var armPos = minArmRot;
         var pivotPos = minPivRot;
 
         if (dist < crossOver)
         {
-            armPos = FriarMath.Remap(dist, minDist, crossOver, minArmRot, maxArmRot, false);
+            armPos = shotMap.GetArm(dist);
         }
         else
         {
-            pivotPos = FriarMath.Remap(dist, crossOver, maxDist, minPivRot, maxPivRot, false);
+            pivotPos = shotMap.GetPivot(dist);
         }
-        SmartDashboard.putNumber("AutoTag.speaker.arm", armPos);
-        SmartDashboard.putNumber("AutoTag.speaker.pivot", pivotPos);
+        ArmTelemetry.Set(armPos);
+        PivotTelemetry.Set(pivotPos);
        // RobotContainer.Get().Arm.SetArmPosRaw(aimAngle);
 
         // -- Auto Lineup
-        var targetAngle = Math.toDegrees(Math.asin(-x / dist)) - 90;
-        if ( y < 0)
-        {
-            targetAngle *= -1;
-        }
-        var currentAngle = Math.toDegrees(pose.getRotation().getY());
-
-        SmartDashboard.putNumber("AutoTag.speaker.theta", targetAngle);
-        SmartDashboard.putNumber("AutoTag.speaker.robotAngle", currentAngle);
-
-        var rotationRate = AimPID.calculate(currentAngle, targetAngle);
+        var targetAngle = Solver.GetTargetAngleDegrees();
+        var currentAngle = Math.toDegrees(robotAngle);
 
+        ThetaTelemetry.Set(targetAngle);
+        RobotAngleTelemetry.Set(currentAngle);
 
         //var request = RobotContainer.Get().GetDefaultDriveRequest();
         var output = RobotContainer.Get().GetVelocityForThrottle();
-        var request = RobotContainer.Get().driveFieldCentric
-            .withVelocityX(output.getX())
-            .withVelocityY(output.getY())
-            .withRotationalRate(-rotationRate);
-        RobotContainer.Get().drivetrain.setControl(request);
+        if (UseProfiledHeading)
+        {
+            // -- Turn the target space error into a field heading, the odometry thread does the rest
+            var fieldHeading = RobotContainer.Get().drivetrain.getState().Pose.getRotation().getRadians();
+            var targetHeading = fieldHeading - Math.toRadians(targetAngle - currentAngle);
+
+            RobotContainer.Get().drivetrain.setControl(HeadingRequest
+                .withVelocityX(output.getX())
+                .withVelocityY(output.getY())
+                .withTargetHeading(targetHeading));
+        }
+        else
+        {
+            var rotationRate = AimPID.calculate(currentAngle, targetAngle);
+            var request = RobotContainer.Get().driveFieldCentric
+                .withVelocityX(output.getX())
+                .withVelocityY(output.getY())
+                .withRotationalRate(-rotationRate);
+            RobotContainer.Get().drivetrain.setControl(request);
+        }
 
+        if (!HasReportedSettle && IsAimedAtSpeaker())
+        {
+            HasReportedSettle = true;
+            SettleTimeTelemetry.Set(Timer.getFPGATimestamp() - AimStartTime);
+            SettleTimeOdometryTelemetry.Set(HeadingRequest.GetLastSettleTime());
+        }
+
+        if (PrePositionForSpeaker)
+        {
+            ExecuteSpeakerPrePositioned(armPos, pivotPos);
+            return;
+        }
 
-        if (dist <= maxDist && !IsShooting && AimPID.atSetpoint())
+        if (dist <= maxDist && !IsShooting && IsAimedAtSpeaker())
         {
             System.out.println("At setpoint");
+            IsShooting = true;
             if (dist < crossOver)
             {
                 System.out.println("Moving Arm");
@@ -171,24 +264,71 @@ public class AutoTagCommand extends Command
                         .andThen(Commands.waitSeconds(.5))
                     .andThen(RobotContainer.Get().Command_ScoreSpeaker()));
             }
-            IsShooting = true;
         }
 
     }
 
+    @Override
+    public void end(boolean interrupted)
+    {
+        // -- Once we've shot the scoring command owns the arm and pivot, before that they're wherever we left them.
+        // -- They got there together while aiming, so they come back together the same way. Only the speaker moves
+        // -- them, the requirements can't change per tag so we still hold them for the other tags but leave them be.
+        if (HasPrePositioned && !IsShooting)
+        {
+            RobotContainer.Get().Arm.SetTargetPosition(ArmSubsystem.EArmPosition.Stowed.Rotations);
+            RobotContainer.Get().Intake.SetPivotTarget(IntakeSubsystem.EPivotPosition.Stowed.Rotations);
+        }
+    }
+
+    private boolean IsAimedAtSpeaker()
+    {
+        return UseProfiledHeading ? HeadingRequest.IsAtGoal() : AimPID.atSetpoint();
+    }
+
+    /**
+     * Drives the arm and pivot toward the shot setpoint every loop while the drivetrain is still turning,
+     * then shoots once aim, arm and pivot have all been ready for a few loops
+     */
+    private void ExecuteSpeakerPrePositioned(double armPos, double pivotPos)
+    {
+        if (IsShooting) { return; }
+
+        var arm = RobotContainer.Get().Arm;
+        var intake = RobotContainer.Get().Intake;
+
+        HasPrePositioned = true;
+        arm.SetTargetPosition(armPos);
+        intake.SetPivotTarget(pivotPos);
+
+        boolean ready = IsAimedAtSpeaker()
+            && arm.IsNearPosition(armPos, ShotArmTolerance)
+            && intake.IsPivotNear(pivotPos, ShotPivotTolerance);
+        ReadyTelemetry.Set(ready);
+
+        if (ShotReadyDebounce.calculate(ready))
+        {
+            System.out.println("Shooting (pre-positioned)");
+
+            // -- Set first, scoring may need the intake and interrupt us
+            IsShooting = true;
+            CommandScheduler.getInstance().schedule(RobotContainer.Get().Command_ScoreSpeaker());
+        }
+    }
+
     private void ExecuteAmp()
     {
         Pose3d pose = CurrentTarget.getRobotPose_TargetSpace();
         double posY = pose.getTranslation().getX();
         double posX = pose.getTranslation().getZ();
         double angleY = Math.toDegrees(pose.getRotation().getY());
-        SmartDashboard.putNumber("AutoTag.posX", posX);
-        SmartDashboard.putNumber("AutoTag.posY", posY);
-        SmartDashboard.putNumber("AutoTag.angleY", angleY);
+        PosXTelemetry.Set(posX);
+        PosYTelemetry.Set(posY);
+        AngleYTelemetry.Set(angleY);
 
         //double rotationalOffset = 0.05;
         var rotationRate = AimPID.calculate(angleY, 0);
-        SmartDashboard.putNumber("AutoTag.rotationRate", rotationRate);
+        RotationRateTelemetry.Set(rotationRate);
 
         double offset = 0.05;
 
@@ -204,6 +344,8 @@ public class AutoTagCommand extends Command
 
         if (!IsShooting && XPID.atSetpoint() && YPID.atSetpoint() && AimPID.atSetpoint())
         {
+            // -- Set first, going to the amp pose needs the arm and intake and interrupts us when pre-positioning
+            IsShooting = true;
             CommandScheduler.getInstance()
                             .schedule(Commands.sequence(
                                 RobotContainer.Get().Pose.Command_GoToPose(PoseManager.EPose.Amp),
@@ -212,8 +354,6 @@ public class AutoTagCommand extends Command
                                 Commands.waitSeconds(.5),
                                 RobotContainer.Get().Command_ScoreAmp()
                             ));
-
-            IsShooting = true;
         }
 
     }
@@ -224,12 +364,12 @@ public class AutoTagCommand extends Command
         var posX = pose.getTranslation().getZ();
         var posY = pose.getTranslation().getX();
         var angleY = Math.toDegrees(pose.getRotation().getY());
-        SmartDashboard.putNumber("AutoTag.posX", posX);
-        SmartDashboard.putNumber("AutoTag.posY", posY);
-        SmartDashboard.putNumber("AutoTag.angleY", angleY);
+        PosXTelemetry.Set(posX);
+        PosYTelemetry.Set(posY);
+        AngleYTelemetry.Set(angleY);
 
         var rotationRate = AimPID.calculate(angleY, 0);
-        SmartDashboard.putNumber("AutoTag.rotationRate", rotationRate);
+        RotationRateTelemetry.Set(rotationRate);
 
         double finalX = XPID.calculate(posX, -1.1);
         double finalY = YPID.calculate(posY, 0);
@@ -260,9 +400,9 @@ public class AutoTagCommand extends Command
         var posX = pose.getTranslation().getZ();
         var posY = pose.getTranslation().getX();
         var angleY = Math.toDegrees(pose.getRotation().getY());
-        SmartDashboard.putNumber("AutoTag.posX", posX);
-        SmartDashboard.putNumber("AutoTag.posY", posY);
-        SmartDashboard.putNumber("AutoTag.angleY", angleY);
+        PosXTelemetry.Set(posX);
+        PosYTelemetry.Set(posY);
+        AngleYTelemetry.Set(angleY);
 
         var rotationRate = AimPID.calculate(angleY, 0);
 
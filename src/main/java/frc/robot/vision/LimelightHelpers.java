@@ -565,9 +565,15 @@ public class LimelightHelpers {
         LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
 
     TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-    double[] poseArray = tsValue.value;
-    long timestamp = tsValue.timestamp;
+    return parseBotPoseEstimate(tsValue.value, tsValue.timestamp);
+  }
 
+  /**
+   * Parses a botpose array as published by the Limelight. Split out from the NT read so it can be run off-robot.
+   *
+   * @param timestamp NT server timestamp of the array, in microseconds
+   */
+  public static PoseEstimate parseBotPoseEstimate(double[] poseArray, long timestamp) {
     if (poseArray.length == 0) {
       // Handle the case where no data is available
       return null; // or some default PoseEstimate
@@ -609,7 +615,11 @@ public class LimelightHelpers {
 
   private static RawFiducial[] getRawFiducials(String limelightName) {
     var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawfiducials");
-    var rawFiducialArray = entry.getDoubleArray(new double[0]);
+    return parseRawFiducials(entry.getDoubleArray(new double[0]));
+  }
+
+  /** Parses a rawfiducials array as published by the Limelight. */
+  public static RawFiducial[] parseRawFiducials(double[] rawFiducialArray) {
     int valsPerEntry = 7;
     if (rawFiducialArray.length % valsPerEntry != 0) {
       return new RawFiducial[0];
@@ -1248,6 +1258,11 @@ public class LimelightHelpers {
 
   /** Parses Limelight's JSON results dump into a LimelightResults Object */
   public static LimelightResults getLatestResults(String limelightName) {
+    return parseResults(getJSONDump(limelightName));
+  }
+
+  /** Parses a Limelight JSON results dump. Split out from the NT read so it can be run off-robot. */
+  public static LimelightResults parseResults(String json) {
 
     long start = System.nanoTime();
     LimelightHelpers.LimelightResults results = new LimelightHelpers.LimelightResults();
@@ -1257,7 +1272,7 @@ public class LimelightHelpers {
     }
 
     try {
-      results = mapper.readValue(getJSONDump(limelightName), LimelightResults.class);
+      results = mapper.readValue(json, LimelightResults.class);
     } catch (JsonProcessingException e) {
       results.error = "lljson error: " + e.getMessage();
     }
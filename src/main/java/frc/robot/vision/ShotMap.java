@@ -0,0 +1,190 @@
+package frc.robot.vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import friarLib3.math.LookupTable;
+
+/**
+ * Speaker shot setpoints by distance, loaded from deploy/shotmap.csv.
+ *
+ * A ShotMap is immutable. The current one is published through an AtomicReference, so the control loop just reads it
+ * without locking while a new one is swapped in whenever the file changes or new text is published on
+ * /ShotMap/Update. A map that fails to parse is reported and ignored, the previous one stays in use.
+ */
+public class ShotMap
+{
+    private static final String FileName = "shotmap.csv";
+    private static final String UpdateTopic = "/ShotMap/Update";
+    private static final double FileCheckPeriod = 1.0;
+
+    // -- Used until the file loads, matches the values that used to be hardcoded in AutoTagCommand
+    private static final String DefaultMap =
+        "crossover, 2.45\n" +
+        "arm, 1.52, -0.058\n" +
+        "arm, 2.45, -0.11\n" +
+        "pivot, 2.45, -0.29\n" +
+        "pivot, 4.28, -0.265\n";
+
+    private static final AtomicReference<ShotMap> Current = new AtomicReference<>(Parse(DefaultMap));
+
+    private static Notifier FileWatcher;
+    private static StringSubscriber UpdateSubscriber;
+    private static long LastModified = 0;
+
+    private final LookupTable ArmTable;
+    private final LookupTable PivotTable;
+    private final double Crossover;
+    private final double MinDistance;
+    private final double MaxDistance;
+
+
+    private ShotMap(LookupTable armTable, LookupTable pivotTable, double crossover)
+    {
+        ArmTable = armTable;
+        PivotTable = pivotTable;
+        Crossover = crossover;
+        MinDistance = Math.min(armTable.GetInput(0), pivotTable.GetInput(0));
+        MaxDistance = Math.max(armTable.GetInput(armTable.GetSize() - 1), pivotTable.GetInput(pivotTable.GetSize() - 1));
+    }
+
+    public static ShotMap Get() { return Current.get(); }
+
+    public double GetArm(double distance) { return ArmTable.GetValue(distance); }
+    public double GetPivot(double distance) { return PivotTable.GetValue(distance); }
+    public double GetCrossover() { return Crossover; }
+    public double GetMinDistance() { return MinDistance; }
+    public double GetMaxDistance() { return MaxDistance; }
+
+    /**
+     * Load the deployed map and start watching for updates. Call once from robotInit.
+     */
+    public static void Initialize()
+    {
+        ReloadFileIfChanged();
+
+        FileWatcher = new Notifier(ShotMap::ReloadFileIfChanged);
+        FileWatcher.setName("ShotMapWatcher");
+        FileWatcher.startPeriodic(FileCheckPeriod);
+
+        var inst = NetworkTableInstance.getDefault();
+        UpdateSubscriber = inst.getStringTopic(UpdateTopic).subscribe("");
+        inst.addListener(UpdateSubscriber, EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+            event -> Apply(event.valueData.value.getString(), "NetworkTables"));
+    }
+
+    private static void ReloadFileIfChanged()
+    {
+        var file = new File(Filesystem.getDeployDirectory(), FileName);
+        long modified = file.lastModified();
+        if (modified == 0 || modified == LastModified) { return; }
+        LastModified = modified;
+
+        try
+        {
+            Apply(Files.readString(file.toPath()), file.getPath());
+        }
+        catch (IOException e)
+        {
+            System.out.println("ShotMap: couldn't read " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    private static void Apply(String text, String source)
+    {
+        if (text.isBlank()) { return; }
+
+        try
+        {
+            Current.set(Parse(text));
+            SmartDashboard.putString("ShotMap.Source", source);
+            System.out.println("ShotMap: loaded from " + source);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("ShotMap: ignoring bad map from " + source + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse the csv format described in deploy/shotmap.csv
+     *
+     * @throws IllegalArgumentException if the text isn't a valid map
+     */
+    public static ShotMap Parse(String text)
+    {
+        var arm = new LookupTable.Builder();
+        var pivot = new LookupTable.Builder();
+        int armCount = 0;
+        int pivotCount = 0;
+        double crossover = Double.NaN;
+
+        var lines = text.split("\n");
+        for (int lineNumber = 1; lineNumber <= lines.length; lineNumber++)
+        {
+            var line = lines[lineNumber - 1].strip();
+            if (line.isEmpty() || line.startsWith("#")) { continue; }
+
+            var fields = line.split(",");
+            for (int i = 0; i < fields.length; i++) { fields[i] = fields[i].strip(); }
+
+            try
+            {
+                switch (fields[0])
+                {
+                    case "crossover":
+                        crossover = Double.parseDouble(fields[1]);
+                        break;
+
+                    case "interpolation":
+                        var interpolation = LookupTable.EInterpolation.valueOf(fields[1]);
+                        arm.WithInterpolation(interpolation);
+                        pivot.WithInterpolation(interpolation);
+                        break;
+
+                    case "arm":
+                        arm.AddValue(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]));
+                        armCount++;
+                        break;
+
+                    case "pivot":
+                        pivot.AddValue(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]));
+                        pivotCount++;
+                        break;
+
+                    default:
+                        throw new IllegalArgumentException("unknown entry '" + fields[0] + "'");
+                }
+            }
+            catch (ArrayIndexOutOfBoundsException e)
+            {
+                throw new IllegalArgumentException("line " + lineNumber + " is missing values");
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        if (armCount < 2 || pivotCount < 2)
+        {
+            throw new IllegalArgumentException("need at least two arm and two pivot entries");
+        }
+        if (Double.isNaN(crossover))
+        {
+            throw new IllegalArgumentException("missing crossover");
+        }
+
+        return new ShotMap(arm.Build(), pivot.Build(), crossover);
+    }
+}
@@ -0,0 +1,99 @@
+package frc.robot.vision;
+
+import friarLib3.math.FastMath;
+
+/**
+ * Compensates speaker shots for robot motion.
+ *
+ * While the note is in the air the robot keeps moving, so instead of aiming at the real target we aim from
+ * where the robot will effectively be after the flight time (equivalently, at a target shifted by -velocity * flightTime).
+ * Flight time depends on distance, so we iterate a few times to converge.
+ *
+ * Everything is in the Limelight target space used by AutoTagCommand: X is the distance out from the tag,
+ * Y is the lateral offset. No allocation and FastMath trig, so it's safe to call every loop.
+ */
+public class ShotSolver
+{
+    private static final int Iterations = 3;
+
+    // -- Flight time model: fixed release delay plus travel at a constant note speed
+    private final double ReleaseDelay;
+    private final double NoteSpeed;
+
+    // -- Results of the last Solve
+    private double VirtualX;
+    private double VirtualY;
+    private double Distance;
+    private double TargetAngleDegrees;
+    private double FlightTime;
+
+
+    /**
+     * @param releaseDelay Seconds between deciding to shoot and the note leaving the robot
+     * @param noteSpeed Average note speed in meters/second
+     */
+    public ShotSolver(double releaseDelay, double noteSpeed)
+    {
+        ReleaseDelay = releaseDelay;
+        NoteSpeed = noteSpeed;
+    }
+
+    /**
+     * @param x Robot distance out from the tag, meters
+     * @param y Robot lateral offset from the tag, meters
+     * @param robotAngle Robot yaw in target space, radians
+     * @param vxRobot Forward chassis velocity, meters/second (robot relative)
+     * @param vyRobot Left chassis velocity, meters/second (robot relative)
+     * @return Self
+     */
+    public ShotSolver Solve(double x, double y, double robotAngle, double vxRobot, double vyRobot)
+    {
+        // -- Robot relative velocity into target space. Facing the tag, driving forward closes the distance.
+        double cos = FastMath.Cos(robotAngle);
+        double sin = FastMath.Sin(robotAngle);
+        double vx = -(vxRobot * cos - vyRobot * sin);
+        double vy = -(vxRobot * sin + vyRobot * cos);
+
+        double flightTime = 0;
+        double virtualX = x;
+        double virtualY = y;
+        double dist = Math.sqrt((x * x) + (y * y));
+
+        for (int i = 0; i < Iterations; i++)
+        {
+            flightTime = ReleaseDelay + dist / NoteSpeed;
+            virtualX = x + vx * flightTime;
+            virtualY = y + vy * flightTime;
+            dist = Math.sqrt((virtualX * virtualX) + (virtualY * virtualY));
+        }
+
+        VirtualX = virtualX;
+        VirtualY = virtualY;
+        Distance = dist;
+        FlightTime = flightTime;
+        TargetAngleDegrees = ComputeTargetAngleDegrees(virtualX, virtualY, dist);
+
+        return this;
+    }
+
+    /**
+     * Robot heading (degrees, target space) that points the shooter at the tag from the given position
+     */
+    static double ComputeTargetAngleDegrees(double x, double y, double dist)
+    {
+        if (dist <= 0) { return 0; }
+
+        var targetAngle = Math.toDegrees(FastMath.Asin(-x / dist)) - 90;
+        if (y < 0)
+        {
+            targetAngle *= -1;
+        }
+        return targetAngle;
+    }
+
+    public double GetVirtualX() { return VirtualX; }
+    public double GetVirtualY() { return VirtualY; }
+    public double GetDistance() { return Distance; }
+    public double GetTargetAngleDegrees() { return TargetAngleDegrees; }
+    public double GetFlightTime() { return FlightTime; }
+}
@@ -41,10 +41,15 @@ public class Vision
     {
         UpdateResults();
 
+        return SelectBestTarget(LatestResults);
+    }
+
+    static public LimelightHelpers.LimelightTarget_Fiducial SelectBestTarget(LimelightHelpers.LimelightResults results)
+    {
         LimelightHelpers.LimelightTarget_Fiducial bestTarget = null;
 
         // -- loop through all fiducial targets and find the valid target that's closest to the center
-        for (LimelightHelpers.LimelightTarget_Fiducial target : LatestResults.targets_Fiducials)
+        for (LimelightHelpers.LimelightTarget_Fiducial target : results.targets_Fiducials)
         {
             if (ValidTags.contains((int)target.fiducialID))
             {
@@ -60,10 +65,15 @@ public class Vision
     }
 
     static public LimelightHelpers.LimelightTarget_Detector GetBestNoteTarget()
+    {
+        return SelectBestNoteTarget(LatestResults);
+    }
+
+    static public LimelightHelpers.LimelightTarget_Detector SelectBestNoteTarget(LimelightHelpers.LimelightResults results)
     {
         LimelightHelpers.LimelightTarget_Detector bestNoteTarget = null;
 
-        for (LimelightHelpers.LimelightTarget_Detector target : LatestResults.targets_Detector)
+        for (LimelightHelpers.LimelightTarget_Detector target : results.targets_Detector)
         {
             if (bestNoteTarget == null || Math.abs(target.tx) < Math.abs(bestNoteTarget.tx))
             {
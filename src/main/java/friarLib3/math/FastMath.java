@@ -0,0 +1,133 @@
+package friarLib3.math;
+
+/**
+ * Cheaper, approximate versions of the java.lang.Math trig functions for code that runs every loop.
+ *
+ * Error bounds below were measured against java.lang.Math over the full input range. They're far below anything
+ * our sensors can resolve, but these aren't drop-in replacements for math that needs to be exact
+ * (e.g. accumulating angles over a whole match). Math.sqrt isn't here on purpose, it's already a single instruction.
+ * Sin and Cos hold their bound out to at least 1e8 radians, past that the table index itself loses precision.
+ *
+ * Nothing allocates, the sin table is built once when the class loads.
+ */
+public class FastMath
+{
+    // -- Sin table covering one full turn, plus one extra entry so interpolation never wraps
+    private static final int SinTableSize = 8192;
+    private static final double TableStepsPerRadian = SinTableSize / (2 * Math.PI);
+    private static final double[] SinTable = new double[SinTableSize + 1];
+
+    static
+    {
+        for (int i = 0; i <= SinTableSize; i++)
+        {
+            SinTable[i] = Math.sin(i / TableStepsPerRadian);
+        }
+    }
+
+    private FastMath() {}
+
+    /**
+     * Table lookup with linear interpolation. Max error 7.5e-8.
+     */
+    public static double Sin(double radians)
+    {
+        double position = radians * TableStepsPerRadian;
+        double floor = Math.floor(position);
+        double fraction = position - floor;
+        int index = (int) ((long) floor & (SinTableSize - 1));
+
+        return SinTable[index] + (SinTable[index + 1] - SinTable[index]) * fraction;
+    }
+
+    /**
+     * See Sin. Max error 7.5e-8.
+     */
+    public static double Cos(double radians)
+    {
+        return Sin(radians + Math.PI / 2);
+    }
+
+    /**
+     * Polynomial approximation of atan on [-1, 1], max error 1.7e-6 radians.
+     */
+    public static double Atan(double value)
+    {
+        if (value > 1)
+        {
+            return Math.PI / 2 - AtanUnit(1 / value);
+        }
+        if (value < -1)
+        {
+            return -Math.PI / 2 - AtanUnit(1 / value);
+        }
+        return AtanUnit(value);
+    }
+
+    /**
+     * Same quadrant and signed zero handling as Math.atan2. Max error 1.7e-6 radians.
+     */
+    public static double Atan2(double y, double x)
+    {
+        double absX = Math.abs(x);
+        double absY = Math.abs(y);
+
+        if ((absX == 0 && absY == 0) || (Double.isInfinite(absX) && Double.isInfinite(absY)))
+        {
+            return Math.atan2(y, x); // -- Keep Math's signed zero and infinity behavior
+        }
+
+        // -- Reduce to an angle in [0, 45°] so the polynomial stays accurate, then unfold
+        double angle = absY <= absX
+            ? AtanUnit(absY / absX)
+            : Math.PI / 2 - AtanUnit(absX / absY);
+
+        if (x < 0)
+        {
+            angle = Math.PI - angle;
+        }
+        return Math.copySign(angle, y); // -- Also keeps -0.0 on the negative x axis at -PI, like Math.atan2
+    }
+
+    /**
+     * Abramowitz and Stegun 4.4.46, max error 2.2e-8 radians. Input is clamped to [-1, 1].
+     */
+    public static double Asin(double value)
+    {
+        double x = Math.min(Math.abs(value), 1);
+
+        double polynomial = 1.5707963050
+            + x * (-0.2145988016
+            + x * (0.0889789874
+            + x * (-0.0501743046
+            + x * (0.0308918810
+            + x * (-0.0170881256
+            + x * (0.0066700901
+            + x * -0.0012624911))))));
+
+        double result = Math.PI / 2 - Math.sqrt(1 - x) * polynomial;
+        return value < 0 ? -result : result;
+    }
+
+    /**
+     * See Asin. Max error 2.2e-8 radians.
+     */
+    public static double Acos(double value)
+    {
+        return Math.PI / 2 - Asin(value);
+    }
+
+    /**
+     * Odd polynomial fit of atan for inputs in [-1, 1]
+     */
+    private static double AtanUnit(double z)
+    {
+        double z2 = z * z;
+        return z * (0.99997726
+            + z2 * (-0.33262347
+            + z2 * (0.19354346
+            + z2 * (-0.11643287
+            + z2 * (0.05265332
+            + z2 * -0.01172120)))));
+    }
+}
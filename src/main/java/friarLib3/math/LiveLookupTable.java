@@ -0,0 +1,54 @@
+package friarLib3.math;
+
+import java.util.function.Consumer;
+
+/**
+ * A LookupTable that can be retuned while other threads are reading it.
+ *
+ * Readers always go through the current snapshot, which is immutable, so they never lock and never see a table
+ * that's halfway through an edit. Edits copy the current snapshot into a builder, change it, and publish the new
+ * table in one volatile write. Writers are serialized so two edits made at once can't lose each other's changes.
+ */
+public class LiveLookupTable
+{
+    private volatile LookupTable Snapshot;
+
+    public LiveLookupTable(LookupTable initial)
+    {
+        Snapshot = initial;
+    }
+
+    /**
+     * @return The current snapshot. Hold onto it if several lookups need to agree with each other.
+     */
+    public LookupTable Get() { return Snapshot; }
+
+    public double GetValue(double input)
+    {
+        return Snapshot.GetValue(input);
+    }
+
+    /**
+     * Replace the whole table
+     */
+    public synchronized void Set(LookupTable table)
+    {
+        Snapshot = table;
+    }
+
+    /**
+     * Apply edits to a copy of the current table and publish it. A compiled table is recompiled at the same resolution.
+     *
+     * @param edits Changes to make, e.g. builder -> builder.AddValue(2.5, 0.1)
+     * @return The newly published snapshot
+     */
+    public synchronized LookupTable Update(Consumer<LookupTable.Builder> edits)
+    {
+        var builder = Snapshot.ToBuilder();
+        edits.accept(builder);
+
+        var table = builder.Build();
+        Snapshot = table;
+        return table;
+    }
+}
@@ -1,102 +1,437 @@
 package friarLib3.math;
 
-import java.awt.*;
-import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.concurrent.locks.Condition;
+import java.util.Arrays;
 
-public class LookupTable 
+/**
+ * Lookup table that interpolates between nodes, piecewise linear by default.
+ *
+ * Tables are immutable and built once through a Builder. Nodes live in parallel primitive arrays with the
+ * coefficients of each segment precomputed, so GetValue is a binary search plus a short polynomial and never allocates.
+ *
+ * This replaced the old mutable table, which had a public constructor and AddValue on the table itself. Code written
+ * against that needs to move to the builder: new LookupTable().AddValue(x, y) is now
+ * new LookupTable.Builder().AddValue(x, y).Build(), and new Normalized() is new Normalized.Builder().Build().
+ */
+public class LookupTable
 {
-    private ArrayList<Point2D.Double> Nodes = new ArrayList<Point2D.Double>();
-
-    public LookupTable AddValue(double input, double output)
+    public enum EInterpolation
     {
-        Nodes.add(new Point2D.Double(input, output));
-        Nodes.sort(Comparator.comparingDouble(a -> a.x));
+        // -- Straight lines between nodes, kinks at every node
+        Linear,
+
+        // -- Smooth (Fritsch-Carlson), never overshoots the nodes, keeps monotonic data monotonic
+        MonotoneCubic,
 
-        return this;
+        // -- Smooth, passes through the nodes with tangents from the neighboring nodes. Can overshoot.
+        CatmullRom
     }
 
-    public double GetValue(double input)
+    protected final double[] Inputs;
+    protected final double[] Outputs;
+    protected final EInterpolation Interpolation;
+
+    // -- Per segment polynomial in (input - Inputs[i]): Outputs[i] + Slopes[i] t + Quadratic[i] t^2 + Cubic[i] t^3
+    protected final double[] Slopes;
+    protected final double[] Quadratic;
+    protected final double[] Cubic;
+
+    protected LookupTable(double[] inputs, double[] outputs)
     {
-        assert Nodes.size() > 1 : "LookupTable requires at least two values to lerp between";
+        this(inputs, outputs, EInterpolation.Linear);
+    }
+
+    protected LookupTable(double[] inputs, double[] outputs, EInterpolation interpolation)
+    {
+        assert inputs.length > 1 : "LookupTable requires at least two values to lerp between";
 
-        var numNodes = Nodes.size();
+        Inputs = inputs;
+        Outputs = outputs;
+        Interpolation = interpolation;
 
-        // -- Clamp Low
-        var low = Nodes.get(0);
-        if (input <= low.x)
+        int segments = inputs.length - 1;
+        var secants = new double[segments];
+        for (int i = 0; i < segments; i++)
         {
-            return low.y;
+            secants[i] = (outputs[i + 1] - outputs[i]) / (inputs[i + 1] - inputs[i]);
         }
 
-        // -- Clamp High
-        var high = Nodes.get(numNodes - 1);
-        if (input >= high.x)
+        if (interpolation == EInterpolation.Linear)
+        {
+            Slopes = secants;
+            Quadratic = null;
+            Cubic = null;
+            return;
+        }
+
+        // -- Cubic Hermite: pick a tangent at every node, then turn each segment into a polynomial
+        var tangents = interpolation == EInterpolation.MonotoneCubic
+            ? MonotoneTangents(secants)
+            : CatmullRomTangents(inputs, outputs, secants);
+
+        Slopes = new double[segments];
+        Quadratic = new double[segments];
+        Cubic = new double[segments];
+        for (int i = 0; i < segments; i++)
+        {
+            double h = inputs[i + 1] - inputs[i];
+            Slopes[i] = tangents[i];
+            Quadratic[i] = (3 * secants[i] - 2 * tangents[i] - tangents[i + 1]) / h;
+            Cubic[i] = (tangents[i] + tangents[i + 1] - 2 * secants[i]) / (h * h);
+        }
+    }
+
+    private static double[] CatmullRomTangents(double[] inputs, double[] outputs, double[] secants)
+    {
+        int last = inputs.length - 1;
+        var tangents = new double[inputs.length];
+
+        tangents[0] = secants[0];
+        tangents[last] = secants[last - 1];
+        for (int i = 1; i < last; i++)
         {
-            return high.y;
+            tangents[i] = (outputs[i + 1] - outputs[i - 1]) / (inputs[i + 1] - inputs[i - 1]);
         }
 
-        Point2D.Double Left = Nodes.get(0);
-        Point2D.Double Right = null;
+        return tangents;
+    }
+
+    private static double[] MonotoneTangents(double[] secants)
+    {
+        int last = secants.length;
+        var tangents = new double[last + 1];
 
-        // -- Find the node we're past
-        for (Point2D.Double Node : Nodes)
+        tangents[0] = secants[0];
+        tangents[last] = secants[last - 1];
+        for (int i = 1; i < last; i++)
         {
-            if (input > Node.x)
+            // -- Flat at local extremes so we don't overshoot them
+            tangents[i] = secants[i - 1] * secants[i] <= 0 ? 0 : (secants[i - 1] + secants[i]) / 2;
+        }
+
+        // -- Fritsch-Carlson: scale tangents back where they'd make a segment overshoot
+        for (int i = 0; i < last; i++)
+        {
+            if (secants[i] == 0)
             {
-                Left = Node;
+                tangents[i] = 0;
+                tangents[i + 1] = 0;
+                continue;
             }
-            else
+
+            double alpha = tangents[i] / secants[i];
+            double beta = tangents[i + 1] / secants[i];
+            double length = alpha * alpha + beta * beta;
+            if (length > 9)
             {
-                Right = Node;
-                break;
+                double tau = 3 / Math.sqrt(length);
+                tangents[i] = tau * alpha * secants[i];
+                tangents[i + 1] = tau * beta * secants[i];
             }
         }
 
-        assert Right != null : "Didn't find a Right value";
+        return tangents;
+    }
+
+    public double GetValue(double input)
+    {
+        int last = Inputs.length - 1;
+
+        // -- Clamp Low
+        if (input <= Inputs[0])
+        {
+            return Outputs[0];
+        }
+
+        // -- Clamp High
+        if (input >= Inputs[last])
+        {
+            return Outputs[last];
+        }
+
+        int index = FindSegment(input);
+        double t = input - Inputs[index];
+
+        if (Cubic == null)
+        {
+            return Outputs[index] + t * Slopes[index];
+        }
+
+        return Outputs[index] + t * (Slopes[index] + t * (Quadratic[index] + t * Cubic[index]));
+    }
 
-        // -- Early out if the outputs are the same, make sure we don't divide by 0 
-        if (Left.y == Right.y)
+    /**
+     * @return Index of the node at the start of the segment containing input. Input must be inside the table.
+     */
+    protected int FindSegment(double input)
+    {
+        int index = Arrays.binarySearch(Inputs, input);
+
+        // -- Not an exact hit, binarySearch gives us -(insertion point) - 1 and we want the node before that
+        if (index < 0)
         {
-            return Left.y;
+            index = -index - 2;
         }
 
-        return FriarMath.Remap(input, Left.x, Right.x, Left.y, Right.y);
+        return Math.min(index, Inputs.length - 2);
     }
 
+    /**
+     * @return A builder holding this table's nodes and settings, for making an edited copy
+     */
+    public Builder ToBuilder()
+    {
+        var builder = NewBuilder();
+        builder.WithInterpolation(Interpolation);
+        for (int i = 0; i < Inputs.length; i++)
+        {
+            builder.Put(Inputs[i], Outputs[i]);
+        }
+        return builder;
+    }
+
+    protected Builder NewBuilder() { return new Builder(); }
+
+    public EInterpolation GetInterpolation() { return Interpolation; }
+    public int GetSize() { return Inputs.length; }
+    public double GetInput(int index) { return Inputs[index]; }
+    public double GetOutput(int index) { return Outputs[index]; }
+
+
+    /**
+     * Collects nodes in any order, then sorts them into a table. If an input is added twice the last output wins.
+     */
+    static public class Builder
+    {
+        protected double[] Inputs = new double[8];
+        protected double[] Outputs = new double[8];
+        protected int Count = 0;
+        protected EInterpolation Interpolation = EInterpolation.Linear;
+
+        public Builder WithInterpolation(EInterpolation interpolation)
+        {
+            Interpolation = interpolation;
+            return this;
+        }
+
+        public Builder AddValue(double input, double output)
+        {
+            Put(input, output);
+            return this;
+        }
+
+        /**
+         * Remove the node at exactly this input, if there is one
+         */
+        public Builder RemoveValue(double input)
+        {
+            for (int i = 0; i < Count; i++)
+            {
+                if (Inputs[i] == input)
+                {
+                    System.arraycopy(Inputs, i + 1, Inputs, i, Count - i - 1);
+                    System.arraycopy(Outputs, i + 1, Outputs, i, Count - i - 1);
+                    Count--;
+                    break;
+                }
+            }
+            return this;
+        }
+
+        protected void Put(double input, double output)
+        {
+            for (int i = 0; i < Count; i++)
+            {
+                if (Inputs[i] == input)
+                {
+                    Outputs[i] = output;
+                    return;
+                }
+            }
+
+            if (Count == Inputs.length)
+            {
+                Inputs = Arrays.copyOf(Inputs, Count * 2);
+                Outputs = Arrays.copyOf(Outputs, Count * 2);
+            }
 
+            // -- Insertion sort as we go, tables are small
+            int i = Count;
+            while (i > 0 && Inputs[i - 1] > input)
+            {
+                Inputs[i] = Inputs[i - 1];
+                Outputs[i] = Outputs[i - 1];
+                i--;
+            }
+            Inputs[i] = input;
+            Outputs[i] = output;
+            Count++;
+        }
+
+        public LookupTable Build()
+        {
+            return new LookupTable(Arrays.copyOf(Inputs, Count), Arrays.copyOf(Outputs, Count), Interpolation);
+        }
+    }
 
 
-    
-    
     static public class Normalized extends LookupTable
     {
         /**
          * A version of a lookup table where all inputs must be in the range of 0 to 1
          * When GetValue is called with a negative value, it will rotate the curve 180° around the origin such that
          * GetValue(0.5) returns 0.5, and GetValue(-0.5) returns -0.5
-         * Automatically starts with values (0, 0) and (1, 1)
          */
-        public Normalized()
+        protected Normalized(double[] inputs, double[] outputs, EInterpolation interpolation)
         {
-            AddValue(0, 0);
-            AddValue(1, 1);
+            super(inputs, outputs, interpolation);
         }
 
         @Override
-        public LookupTable AddValue(double input, double output)
+        public double GetValue(double input)
         {
-            assert input > 0 && input < 1 : "Normalized lookup tables must have their input in the range of 0 to 1";
-            return super.AddValue(input, output);
+            var sign = input < 0 ? -1 : 1;
+            return super.GetValue(Math.abs(input)) * sign;
         }
 
         @Override
-        public double GetValue(double input)
+        protected Builder NewBuilder() { return new Builder(); }
+
+        @Override
+        public Builder ToBuilder() { return (Builder) super.ToBuilder(); }
+
+        /**
+         * Resample this curve onto a uniform grid so lookups are an index computation plus one lerp.
+         *
+         * @param resolution Number of grid cells between 0 and 1
+         * @return The compiled table. Check GetMaxError() to see how closely it follows this one.
+         */
+        public Compiled Compile(int resolution)
         {
-            var sign = input < 0 ? -1 : 1;
-            return super.GetValue(Math.abs(input)) * sign;
+            assert resolution > 0 : "Compiled lookup tables need at least one cell";
+
+            var inputs = new double[resolution + 1];
+            var outputs = new double[resolution + 1];
+            for (int i = 0; i <= resolution; i++)
+            {
+                inputs[i] = (double) i / resolution;
+                outputs[i] = GetValue(inputs[i]);
+            }
+
+            var compiled = new Compiled(inputs, outputs, this, resolution);
+
+            // -- Kinks in the source fall at its nodes, so check those plus a few points inside every cell
+            double maxError = 0;
+            for (int i = 0; i < Inputs.length; i++)
+            {
+                maxError = Math.max(maxError, Math.abs(compiled.GetValue(Inputs[i]) - Outputs[i]));
+            }
+            int subSamples = 4;
+            for (int i = 0; i < resolution * subSamples; i++)
+            {
+                double x = (i + 0.5) / (resolution * subSamples);
+                maxError = Math.max(maxError, Math.abs(compiled.GetValue(x) - GetValue(x)));
+            }
+            compiled.MaxError = maxError;
+
+            return compiled;
+        }
+
+        /**
+         * A Normalized table resampled onto a uniform grid, see Normalized.Compile
+         */
+        static public class Compiled extends Normalized
+        {
+            private final Normalized Source;
+            private final int Resolution;
+            private double MaxError;
+
+            private Compiled(double[] inputs, double[] outputs, Normalized source, int resolution)
+            {
+                super(inputs, outputs, EInterpolation.Linear);
+                Source = source;
+                Resolution = resolution;
+            }
+
+            @Override
+            protected int FindSegment(double input)
+            {
+                return Math.min((int) (input * Resolution), Resolution - 1);
+            }
+
+            /**
+             * @return A builder holding the source table's nodes, which compiles at this resolution again when built
+             */
+            @Override
+            public Builder ToBuilder() { return Source.ToBuilder().WithCompileResolution(Resolution); }
+
+            /**
+             * @return The table this one was compiled from
+             */
+            public Normalized GetSource() { return Source; }
+
+            public int GetResolution() { return Resolution; }
+
+            /**
+             * @return Largest difference found between this table and the one it was compiled from
+             */
+            public double GetMaxError() { return MaxError; }
+        }
+
+        /**
+         * Automatically starts with values (0, 0) and (1, 1)
+         */
+        static public class Builder extends LookupTable.Builder
+        {
+            // -- 0 builds a plain Normalized table
+            protected int CompileResolution = 0;
+
+            public Builder()
+            {
+                Put(0, 0);
+                Put(1, 1);
+            }
+
+            @Override
+            public Builder WithInterpolation(EInterpolation interpolation)
+            {
+                super.WithInterpolation(interpolation);
+                return this;
+            }
+
+            @Override
+            public Builder RemoveValue(double input)
+            {
+                assert input > 0 && input < 1 : "Normalized lookup tables always keep their (0, 0) and (1, 1) values";
+                super.RemoveValue(input);
+                return this;
+            }
+
+            @Override
+            public Builder AddValue(double input, double output)
+            {
+                assert input > 0 && input < 1 : "Normalized lookup tables must have their input in the range of 0 to 1";
+                Put(input, output);
+                return this;
+            }
+
+            /**
+             * Have Build compile the table, see Normalized.Compile
+             *
+             * @param resolution Number of grid cells between 0 and 1, or 0 to build it uncompiled
+             */
+            public Builder WithCompileResolution(int resolution)
+            {
+                assert resolution >= 0 : "Compile resolution can't be negative";
+                CompileResolution = resolution;
+                return this;
+            }
+
+            @Override
+            public Normalized Build()
+            {
+                var table = new Normalized(Arrays.copyOf(Inputs, Count), Arrays.copyOf(Outputs, Count), Interpolation);
+                return CompileResolution > 0 ? table.Compile(CompileResolution) : table;
+            }
         }
     }
 }
@@ -0,0 +1,200 @@
+package friarLib3.math;
+
+import java.util.Arrays;
+
+/**
+ * Lookup table with two inputs, e.g. shot setpoints by distance and lateral offset.
+ *
+ * Values live on a rectilinear grid (any spacing along each axis) stored in one flat array, x major.
+ * Inputs outside the grid are clamped to its edge. Lookups remember the last cell they landed in and check it and
+ * its neighbors before searching, since successive queries from a control loop are usually close together.
+ * That cache makes an instance unsafe to share between threads; give each thread its own copy through Copy().
+ */
+public class LookupTable2D
+{
+    private final double[] XInputs;
+    private final double[] YInputs;
+    private final double[] Values;
+    private final boolean Bicubic;
+
+    // -- Derivatives at each node for bicubic lookups, null when bilinear
+    private final double[] DerivX;
+    private final double[] DerivY;
+    private final double[] DerivXY;
+
+    private int CachedX = 0;
+    private int CachedY = 0;
+
+    private LookupTable2D(double[] xInputs, double[] yInputs, double[] values, boolean bicubic)
+    {
+        XInputs = xInputs;
+        YInputs = yInputs;
+        Values = values;
+        Bicubic = bicubic;
+
+        if (!bicubic)
+        {
+            DerivX = null;
+            DerivY = null;
+            DerivXY = null;
+            return;
+        }
+
+        int nx = xInputs.length;
+        int ny = yInputs.length;
+        DerivX = new double[values.length];
+        DerivY = new double[values.length];
+        DerivXY = new double[values.length];
+
+        for (int i = 0; i < nx; i++)
+        {
+            int i0 = Math.max(i - 1, 0);
+            int i1 = Math.min(i + 1, nx - 1);
+            for (int j = 0; j < ny; j++)
+            {
+                int j0 = Math.max(j - 1, 0);
+                int j1 = Math.min(j + 1, ny - 1);
+                double dx = xInputs[i1] - xInputs[i0];
+                double dy = yInputs[j1] - yInputs[j0];
+
+                DerivX[i * ny + j] = (values[i1 * ny + j] - values[i0 * ny + j]) / dx;
+                DerivY[i * ny + j] = (values[i * ny + j1] - values[i * ny + j0]) / dy;
+                DerivXY[i * ny + j] = (values[i1 * ny + j1] - values[i1 * ny + j0]
+                                     - values[i0 * ny + j1] + values[i0 * ny + j0]) / (dx * dy);
+            }
+        }
+    }
+
+    /**
+     * @return A table sharing this one's data with its own lookup cache, for use on another thread
+     */
+    public LookupTable2D Copy()
+    {
+        return new LookupTable2D(this);
+    }
+
+    private LookupTable2D(LookupTable2D other)
+    {
+        XInputs = other.XInputs;
+        YInputs = other.YInputs;
+        Values = other.Values;
+        Bicubic = other.Bicubic;
+        DerivX = other.DerivX;
+        DerivY = other.DerivY;
+        DerivXY = other.DerivXY;
+    }
+
+    public double GetValue(double x, double y)
+    {
+        x = Math.min(Math.max(x, XInputs[0]), XInputs[XInputs.length - 1]);
+        y = Math.min(Math.max(y, YInputs[0]), YInputs[YInputs.length - 1]);
+
+        int i = CachedX = FindCell(XInputs, x, CachedX);
+        int j = CachedY = FindCell(YInputs, y, CachedY);
+
+        int ny = YInputs.length;
+        double dx = XInputs[i + 1] - XInputs[i];
+        double dy = YInputs[j + 1] - YInputs[j];
+        double u = (x - XInputs[i]) / dx;
+        double v = (y - YInputs[j]) / dy;
+
+        int n00 = i * ny + j;
+        int n01 = n00 + 1;
+        int n10 = n00 + ny;
+        int n11 = n10 + 1;
+
+        if (!Bicubic)
+        {
+            double low = Values[n00] + (Values[n10] - Values[n00]) * u;
+            double high = Values[n01] + (Values[n11] - Values[n01]) * u;
+            return low + (high - low) * v;
+        }
+
+        // -- Cubic Hermite basis along each axis
+        double u2 = u * u, u3 = u2 * u;
+        double v2 = v * v, v3 = v2 * v;
+        double hu0 = 2 * u3 - 3 * u2 + 1, hu1 = -2 * u3 + 3 * u2;
+        double tu0 = (u3 - 2 * u2 + u) * dx, tu1 = (u3 - u2) * dx;
+        double hv0 = 2 * v3 - 3 * v2 + 1, hv1 = -2 * v3 + 3 * v2;
+        double tv0 = (v3 - 2 * v2 + v) * dy, tv1 = (v3 - v2) * dy;
+
+        return hu0 * hv0 * Values[n00] + hu1 * hv0 * Values[n10] + hu0 * hv1 * Values[n01] + hu1 * hv1 * Values[n11]
+             + tu0 * hv0 * DerivX[n00] + tu1 * hv0 * DerivX[n10] + tu0 * hv1 * DerivX[n01] + tu1 * hv1 * DerivX[n11]
+             + hu0 * tv0 * DerivY[n00] + hu1 * tv0 * DerivY[n10] + hu0 * tv1 * DerivY[n01] + hu1 * tv1 * DerivY[n11]
+             + tu0 * tv0 * DerivXY[n00] + tu1 * tv0 * DerivXY[n10] + tu0 * tv1 * DerivXY[n01] + tu1 * tv1 * DerivXY[n11];
+    }
+
+    /**
+     * @return Index of the node at the start of the cell containing value. Value must already be clamped to the axis.
+     */
+    private static int FindCell(double[] axis, double value, int cached)
+    {
+        int lastCell = axis.length - 2;
+
+        // -- Same cell as last time, or one of its neighbors
+        if (value >= axis[cached] && value <= axis[cached + 1]) { return cached; }
+        if (cached < lastCell && value >= axis[cached + 1] && value <= axis[cached + 2]) { return cached + 1; }
+        if (cached > 0 && value >= axis[cached - 1] && value <= axis[cached]) { return cached - 1; }
+
+        int index = Arrays.binarySearch(axis, value);
+        if (index < 0)
+        {
+            index = -index - 2;
+        }
+        return Math.min(Math.max(index, 0), lastCell);
+    }
+
+    public int GetXSize() { return XInputs.length; }
+    public int GetYSize() { return YInputs.length; }
+
+
+    static public class Builder
+    {
+        private final double[] XInputs;
+        private final double[] YInputs;
+        private final double[] Values;
+        private boolean Bicubic = false;
+
+        /**
+         * @param xInputs Grid positions along x, strictly increasing
+         * @param yInputs Grid positions along y, strictly increasing
+         */
+        public Builder(double[] xInputs, double[] yInputs)
+        {
+            assert xInputs.length > 1 && yInputs.length > 1 : "LookupTable2D requires at least two values along each axis";
+            for (int i = 1; i < xInputs.length; i++) { assert xInputs[i] > xInputs[i - 1] : "X inputs must be increasing"; }
+            for (int i = 1; i < yInputs.length; i++) { assert yInputs[i] > yInputs[i - 1] : "Y inputs must be increasing"; }
+
+            XInputs = xInputs.clone();
+            YInputs = yInputs.clone();
+            Values = new double[xInputs.length * yInputs.length];
+        }
+
+        public Builder SetValue(int xIndex, int yIndex, double value)
+        {
+            Values[xIndex * YInputs.length + yIndex] = value;
+            return this;
+        }
+
+        /**
+         * Set every value for one x grid position, in the order of the y inputs
+         */
+        public Builder SetRow(int xIndex, double... values)
+        {
+            assert values.length == YInputs.length : "Row must have one value per y input";
+            System.arraycopy(values, 0, Values, xIndex * YInputs.length, values.length);
+            return this;
+        }
+
+        public Builder WithBicubic(boolean bicubic)
+        {
+            Bicubic = bicubic;
+            return this;
+        }
+
+        public LookupTable2D Build()
+        {
+            return new LookupTable2D(XInputs, YInputs, Values.clone(), Bicubic);
+        }
+    }
+}
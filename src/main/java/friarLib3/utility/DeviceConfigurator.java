@@ -0,0 +1,371 @@
+package friarLib3.utility;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.CustomParamsConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkPIDController;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Configures motor controllers off the main thread, several at once, and only writes what's actually different.
+ *
+ * TalonFX: a fingerprint of the desired configuration is kept in the device's CustomParams. Nothing is written when
+ * the fingerprint read back matches and every other field reads back as desired too, so a change made in Tuner X or
+ * at runtime still gets overwritten even though it left the fingerprint alone. The device rounds values, so numbers
+ * only have to match within a small tolerance; the fingerprint catches code changes smaller than that. Otherwise the
+ * whole configuration is applied and the fingerprint read back to verify it. Configs passed in here must leave
+ * CustomParams alone.
+ *
+ * Spark: each parameter in SparkConfig is read back and only the ones that differ are set. Flash is only burned
+ * when something changed, and the controller is never restored to factory defaults.
+ *
+ * Every device reports how long it took, whether it was skipped and whether it worked. Those are queued for the main
+ * thread to publish through DrainResults, so the workers never touch NetworkTables.
+ */
+public class DeviceConfigurator
+{
+    private static final int ThreadCount = 4;
+    private static final int ApplyAttempts = 3;
+    private static final double ConfigTimeoutSeconds = 0.1;
+
+    private static final ExecutorService Workers = Executors.newFixedThreadPool(ThreadCount, runnable ->
+    {
+        var thread = new Thread(runnable, "DeviceConfigurator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // -- Values read back from a TalonFX are rounded by the device, so anything this close counts as the same
+    private static final double TalonTolerance = 1e-3;
+
+    private static final List<CompletableFuture<Boolean>> Pending = new ArrayList<>();
+    private static final Queue<Result> Results = new ConcurrentLinkedQueue<>();
+    private static final double StartTime = Timer.getFPGATimestamp();
+
+    private DeviceConfigurator() {}
+
+    /**
+     * Settings written to a Spark MAX or Spark Flex, PID values are for slot 0
+     */
+    public static class SparkConfig
+    {
+        public CANSparkBase.IdleMode IdleMode = CANSparkBase.IdleMode.kCoast;
+        public boolean Inverted = false;
+        public double P = 0;
+        public double I = 0;
+        public double D = 0;
+        public double FF = 0;
+        public double IZone = 0;
+        public double OutputMin = -1;
+        public double OutputMax = 1;
+
+        public SparkConfig withIdleMode(CANSparkBase.IdleMode idleMode) { IdleMode = idleMode; return this; }
+        public SparkConfig withInverted(boolean inverted) { Inverted = inverted; return this; }
+        public SparkConfig withP(double p) { P = p; return this; }
+        public SparkConfig withI(double i) { I = i; return this; }
+        public SparkConfig withD(double d) { D = d; return this; }
+        public SparkConfig withFF(double ff) { FF = ff; return this; }
+        public SparkConfig withIZone(double iZone) { IZone = iZone; return this; }
+        public SparkConfig withOutputRange(double min, double max) { OutputMin = min; OutputMax = max; return this; }
+    }
+
+    /**
+     * How configuring one device went
+     */
+    public static final class Result
+    {
+        public final String Name;
+        public final double Seconds;
+        public final boolean Skipped;
+        public final boolean Ok;
+
+        // -- From the first device submitted until this one finished
+        public final double TotalSeconds;
+
+        private Result(String name, double seconds, boolean skipped, boolean ok, double totalSeconds)
+        {
+            Name = name;
+            Seconds = seconds;
+            Skipped = skipped;
+            Ok = ok;
+            TotalSeconds = totalSeconds;
+        }
+    }
+
+    /**
+     * Configure a TalonFX in the background
+     *
+     * @param name Name used for the dashboard entries
+     * @return Completes with true once the device is verified to have the configuration
+     */
+    public static CompletableFuture<Boolean> Configure(String name, TalonFX motor, TalonFXConfiguration desired)
+    {
+        return Submit(name, skipped ->
+        {
+            int fingerprint = Fingerprint(desired);
+            var configurator = motor.getConfigurator();
+
+            var current = new TalonFXConfiguration();
+            if (configurator.refresh(current, ConfigTimeoutSeconds).isOK()
+                && MatchesFingerprint(current.CustomParams, fingerprint))
+            {
+                var drifted = Drifted(desired, current);
+                if (drifted.isEmpty())
+                {
+                    skipped.accept(true);
+                    return true;
+                }
+                System.out.println("DeviceConfigurator: " + name + " changed outside the code, rewriting " + drifted);
+            }
+
+            var params = new CustomParamsConfigs()
+                .withCustomParam0(fingerprint >> 16)
+                .withCustomParam1((short) fingerprint);
+
+            // -- Copy so the caller's config isn't changed by us stamping the fingerprint into it
+            var toApply = new TalonFXConfiguration();
+            toApply.deserialize(desired.serialize());
+            toApply.CustomParams = params;
+
+            var onDevice = new CustomParamsConfigs();
+
+            for (int attempt = 0; attempt < ApplyAttempts; attempt++)
+            {
+                StatusCode status = configurator.apply(toApply, ConfigTimeoutSeconds);
+                if (status.isOK()
+                    && configurator.refresh(onDevice, ConfigTimeoutSeconds).isOK()
+                    && MatchesFingerprint(onDevice, fingerprint))
+                {
+                    return true;
+                }
+                System.out.println("DeviceConfigurator: " + name + " attempt " + (attempt + 1) + " failed, " + status);
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Configure a Spark MAX or Spark Flex in the background
+     *
+     * @param name Name used for the dashboard entries
+     * @return Completes with true once every setting reads back as desired
+     */
+    public static CompletableFuture<Boolean> Configure(String name, CANSparkBase motor, SparkConfig desired)
+    {
+        return Submit(name, skipped ->
+        {
+            SparkPIDController pid = motor.getPIDController();
+            boolean changed = false;
+            boolean ok = true;
+
+            if (motor.getIdleMode() != desired.IdleMode)
+            {
+                ok &= motor.setIdleMode(desired.IdleMode) == REVLibError.kOk;
+                changed = true;
+            }
+            if (motor.getInverted() != desired.Inverted)
+            {
+                motor.setInverted(desired.Inverted);
+                ok &= motor.getInverted() == desired.Inverted;
+                changed = true;
+            }
+            if (!SparkMatches(pid.getP(0), desired.P)) { ok &= pid.setP(desired.P, 0) == REVLibError.kOk; changed = true; }
+            if (!SparkMatches(pid.getI(0), desired.I)) { ok &= pid.setI(desired.I, 0) == REVLibError.kOk; changed = true; }
+            if (!SparkMatches(pid.getD(0), desired.D)) { ok &= pid.setD(desired.D, 0) == REVLibError.kOk; changed = true; }
+            if (!SparkMatches(pid.getFF(0), desired.FF)) { ok &= pid.setFF(desired.FF, 0) == REVLibError.kOk; changed = true; }
+            if (!SparkMatches(pid.getIZone(0), desired.IZone)) { ok &= pid.setIZone(desired.IZone, 0) == REVLibError.kOk; changed = true; }
+            if (!SparkMatches(pid.getOutputMin(0), desired.OutputMin) || !SparkMatches(pid.getOutputMax(0), desired.OutputMax))
+            {
+                ok &= pid.setOutputRange(desired.OutputMin, desired.OutputMax, 0) == REVLibError.kOk;
+                changed = true;
+            }
+
+            if (!changed)
+            {
+                skipped.accept(true);
+                return true;
+            }
+
+            // -- Only burn when the write went through, so a bad config isn't made permanent
+            if (ok)
+            {
+                ok = motor.burnFlash() == REVLibError.kOk;
+            }
+            return ok;
+        });
+    }
+
+    /**
+     * Change a TalonFX's neutral mode without blocking the caller. Does nothing if the device already reports it.
+     */
+    public static CompletableFuture<Boolean> SetNeutralMode(TalonFX motor, NeutralModeValue mode)
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            var configurator = motor.getConfigurator();
+            var output = new MotorOutputConfigs();
+
+            if (!configurator.refresh(output, ConfigTimeoutSeconds).isOK()) { return false; }
+            if (output.NeutralMode == mode) { return true; }
+
+            output.NeutralMode = mode;
+
+            // -- The device no longer matches its boot config, clear the fingerprint so the next boot rewrites it
+            return configurator.apply(output, ConfigTimeoutSeconds).isOK()
+                && configurator.apply(new CustomParamsConfigs(), ConfigTimeoutSeconds).isOK();
+        }, Workers);
+    }
+
+    /**
+     * @return Completes once every device submitted so far is done, true if all of them succeeded
+     */
+    public static synchronized CompletableFuture<Boolean> WhenAllDone()
+    {
+        var futures = Pending.toArray(new CompletableFuture[0]);
+        return CompletableFuture.allOf(futures).thenApply(ignored ->
+        {
+            boolean allOk = true;
+            for (var future : futures)
+            {
+                allOk &= (Boolean) future.join();
+            }
+            return allOk;
+        });
+    }
+
+    /**
+     * Hand every result finished since the last call to consumer. Call from the main thread, e.g. to publish them.
+     */
+    public static void DrainResults(Consumer<Result> consumer)
+    {
+        Result result;
+        while ((result = Results.poll()) != null)
+        {
+            consumer.accept(result);
+        }
+    }
+
+    private static synchronized CompletableFuture<Boolean> Submit(String name, ConfigTask task)
+    {
+        var future = CompletableFuture.supplyAsync(() ->
+        {
+            double start = Timer.getFPGATimestamp();
+            boolean[] skipped = { false };
+
+            boolean ok;
+            try
+            {
+                ok = task.Run(value -> skipped[0] = value);
+            }
+            catch (RuntimeException e)
+            {
+                System.out.println("DeviceConfigurator: " + name + " threw " + e);
+                ok = false;
+            }
+
+            double end = Timer.getFPGATimestamp();
+            Results.add(new Result(name, end - start, skipped[0], ok, end - StartTime));
+
+            System.out.printf("DeviceConfigurator: %s %s in %.0f ms%n",
+                name, ok ? (skipped[0] ? "unchanged" : "configured") : "FAILED", (end - start) * 1000);
+            return ok;
+        }, Workers);
+
+        Pending.add(future);
+        return future;
+    }
+
+    private interface ConfigTask
+    {
+        boolean Run(Consumer<Boolean> skipped);
+    }
+
+    /**
+     * Hash of everything in the config except CustomParams, which is where the hash itself is stored
+     */
+    private static int Fingerprint(TalonFXConfiguration config)
+    {
+        var copy = new TalonFXConfiguration();
+        copy.deserialize(config.serialize());
+        copy.CustomParams = new CustomParamsConfigs();
+        return copy.serialize().hashCode();
+    }
+
+    /**
+     * Compares every field of every config group except CustomParams, which only holds the fingerprint
+     *
+     * @return Group.Field names that read back different from desired, empty if none
+     */
+    private static List<String> Drifted(TalonFXConfiguration desired, TalonFXConfiguration actual)
+    {
+        var drifted = new ArrayList<String>();
+        for (Field group : TalonFXConfiguration.class.getFields())
+        {
+            if (Modifier.isStatic(group.getModifiers())
+                || group.getType().isPrimitive()
+                || group.getType() == CustomParamsConfigs.class)
+            {
+                continue;
+            }
+
+            try
+            {
+                Object desiredGroup = group.get(desired);
+                Object actualGroup = group.get(actual);
+                for (Field field : group.getType().getFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers())) { continue; }
+
+                    Object want = field.get(desiredGroup);
+                    Object have = field.get(actualGroup);
+                    boolean same = want instanceof Double && have instanceof Double
+                        ? TalonMatches((Double) have, (Double) want)
+                        : Objects.equals(want, have);
+                    if (!same)
+                    {
+                        drifted.add(group.getName() + "." + field.getName());
+                    }
+                }
+            }
+            catch (IllegalAccessException e)
+            {
+                drifted.add(group.getName());
+            }
+        }
+        return drifted;
+    }
+
+    private static boolean TalonMatches(double actual, double desired)
+    {
+        return Math.abs(actual - desired) <= TalonTolerance * Math.max(1, Math.abs(desired));
+    }
+
+    private static boolean MatchesFingerprint(CustomParamsConfigs params, int fingerprint)
+    {
+        return params.CustomParam0 == (fingerprint >> 16) && params.CustomParam1 == (short) fingerprint;
+    }
+
+    // -- Sparks store parameters as floats, so compare relative to the value. Gains like 1e-7 are normal.
+    private static boolean SparkMatches(double actual, double desired)
+    {
+        return Math.abs(actual - desired) <= 1e-6 * Math.abs(desired) + 1e-12;
+    }
+}
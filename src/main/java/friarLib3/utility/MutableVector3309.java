@@ -0,0 +1,225 @@
+package friarLib3.utility;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Represents a 2d vector that is changed in place, for math that runs every loop.
+ *
+ * Only the cartesian components are stored. Magnitude and direction are worked out the first time they're asked
+ * for after a change, so code that only needs x and y never pays for sqrt or atan2. Nothing here allocates except
+ * the conversions to other types.
+ *
+ * Directions are in radians, counterclockwise from the x axis, in the same (-PI, PI] range atan2 returns. Careful
+ * when mixing with Vector3309: its fromRadialCoords/setRadialCoords measure clockwise from the y axis instead, so
+ * setPolar(theta, m) and Vector3309.fromRadialCoords(theta, m) point different ways.
+ */
+public class MutableVector3309 {
+    private double xComponent;
+    private double yComponent;
+
+    private boolean magnitudeValid = true;
+    private double magnitude;
+    private boolean directionValid = true;
+    private double direction;
+
+    public MutableVector3309 () {}
+
+    public MutableVector3309 (double xComponent, double yComponent) {
+        set(xComponent, yComponent);
+    }
+
+    /**
+     * Move the vector to the specified coordinates
+     *
+     * @param xCoordinate
+     * @param yCoordinate
+     * @return Self
+     */
+    public MutableVector3309 set (double xCoordinate, double yCoordinate) {
+        xComponent = xCoordinate;
+        yComponent = yCoordinate;
+        magnitudeValid = false;
+        directionValid = false;
+
+        return this;
+    }
+
+    /**
+     * Move the vector to the specified radial coordinates. Unlike Vector3309.fromRadialCoords, the angle is
+     * counterclockwise from the x axis.
+     *
+     * @param radians
+     * @param magnitude
+     * @return Self
+     */
+    public MutableVector3309 setPolar (double radians, double magnitude) {
+        xComponent = magnitude * Math.cos(radians);
+        yComponent = magnitude * Math.sin(radians);
+
+        this.magnitude = Math.abs(magnitude);
+        magnitudeValid = true;
+
+        // -- A negative magnitude points the other way and atan2 says 0 for a zero vector, getRadians works those out
+        direction = wrap(radians);
+        directionValid = magnitude > 0;
+
+        return this;
+    }
+
+    public MutableVector3309 set (MutableVector3309 other) {
+        xComponent = other.xComponent;
+        yComponent = other.yComponent;
+        magnitudeValid = other.magnitudeValid;
+        magnitude = other.magnitude;
+        directionValid = other.directionValid;
+        direction = other.direction;
+
+        return this;
+    }
+
+    public MutableVector3309 set (Vector3309 other) {
+        return set(other.getXComponent(), other.getYComponent());
+    }
+
+    public MutableVector3309 set (Translation2d other) {
+        return set(other.getX(), other.getY());
+    }
+
+    /**
+     * Add the given components to this vector
+     *
+     * @return Self
+     */
+    public MutableVector3309 add (double x, double y) {
+        return set(xComponent + x, yComponent + y);
+    }
+
+    public MutableVector3309 add (MutableVector3309 other) {
+        return add(other.xComponent, other.yComponent);
+    }
+
+    /**
+     * Scale the magnitude of the vector by the given factor
+     *
+     * @param factor Multiply the magnitude by this value
+     * @return Self
+     */
+    public MutableVector3309 scale (double factor) {
+        xComponent *= factor;
+        yComponent *= factor;
+        magnitude *= Math.abs(factor);
+
+        // -- A negative factor flips the direction, and zero leaves nothing to point with
+        if (!(factor > 0)) {
+            directionValid = false;
+        }
+
+        return this;
+    }
+
+    /**
+     * Reduce the magnitude if it is above the specified threshold
+     *
+     * @param maxValue
+     * @return Self
+     */
+    public MutableVector3309 capMagnitude (double maxValue) {
+        double currentMagnitude = getMagnitude();
+        if (currentMagnitude > maxValue) {
+            scale(maxValue / currentMagnitude);
+        }
+
+        return this;
+    }
+
+    /**
+     * Set the magnitude to one, leaves a zero vector alone
+     *
+     * @return Self
+     */
+    public MutableVector3309 normalize () {
+        double currentMagnitude = getMagnitude();
+        if (currentMagnitude > 0) {
+            scale(1 / currentMagnitude);
+        }
+
+        return this;
+    }
+
+    /**
+     * Rotate the vector counterclockwise
+     *
+     * @param radians
+     * @return Self
+     */
+    public MutableVector3309 rotate (double radians) {
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double x = xComponent * cos - yComponent * sin;
+        double y = xComponent * sin + yComponent * cos;
+
+        xComponent = x;
+        yComponent = y;
+        if (directionValid) {
+            direction = wrap(direction + radians);
+        }
+
+        return this;
+    }
+
+    public double getXComponent () {
+        return xComponent;
+    }
+
+    public double getYComponent () {
+        return yComponent;
+    }
+
+    public double getMagnitude () {
+        if (!magnitudeValid) {
+            magnitude = Math.sqrt((xComponent * xComponent) + (yComponent * yComponent));
+            magnitudeValid = true;
+        }
+        return magnitude;
+    }
+
+    public double getRadians () {
+        if (!directionValid) {
+            direction = Math.atan2(yComponent, xComponent);
+            directionValid = true;
+        }
+        return direction;
+    }
+
+    public double getDegrees () {
+        return Math.toDegrees(getRadians());
+    }
+
+    // -- Into the same (-PI, PI] range as atan2
+    private static double wrap (double radians) {
+        double wrapped = Math.IEEEremainder(radians, 2 * Math.PI);
+        return wrapped <= -Math.PI ? wrapped + 2 * Math.PI : wrapped;
+    }
+
+    /**
+     * @return A new Translation2d, allocates
+     */
+    public Translation2d toTranslation2d () {
+        return new Translation2d(xComponent, yComponent);
+    }
+
+    /**
+     * @return A new Rotation2d pointing the same way, allocates
+     */
+    public Rotation2d toRotation2d () {
+        return new Rotation2d(getRadians());
+    }
+
+    /**
+     * @return A new Vector3309 with the same components, allocates
+     */
+    public Vector3309 toVector3309 () {
+        return Vector3309.fromCartesianCoords(xComponent, yComponent);
+    }
+}
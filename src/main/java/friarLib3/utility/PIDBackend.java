@@ -0,0 +1,20 @@
+package friarLib3.utility;
+
+import java.util.EnumSet;
+
+/**
+ * Writes PIDParameters gains to one motor controller, using whatever that vendor's config calls are.
+ *
+ * Called from the PIDParameters worker thread, never the main loop. Implementations should use short timeouts
+ * and only write the gains they're told changed. toString should name the device, it's used in failure reports.
+ */
+public interface PIDBackend
+{
+    /**
+     * @param slot Closed loop slot to write
+     * @param gains Full set of gains
+     * @param changed Gains that need writing, everything else already matches the controller
+     * @return True if every write succeeded. On false, every gain is written again next time.
+     */
+    boolean Apply(int slot, PIDParameters.Gains gains, EnumSet<PIDParameters.EGain> changed);
+}
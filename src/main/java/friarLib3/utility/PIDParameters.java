@@ -1,9 +1,17 @@
 package friarLib3.utility;
 
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.ctre.phoenix.motorcontrol.can.BaseTalon;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.revrobotics.CANSparkBase;
 
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
@@ -11,10 +19,64 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * Represents a set of PID constants
+ *
+ * Changes aren't written to the motors right away. They're collected for a short moment and then written on a
+ * background thread, only for the gains that actually changed, so tuning from the dashboard never blocks the main
+ * loop on CAN config calls.
+ *
+ * Motors from any vendor can be linked, see PIDBackend. Gains are always written to this object's slot.
+ *
+ * A motor that fails a write is retried with a doubling delay, a few times, and then reported once and left alone
+ * until the next gain change, so an unplugged device can't tie up the worker thread every other motor shares.
  */
 public class PIDParameters implements Sendable
 {
+    public enum EGain
+    {
+        P,
+        I,
+        D,
+        F,
+        IZone,
+    }
+
+    /**
+     * Snapshot of the gains handed to a PIDBackend
+     */
+    public static class Gains
+    {
+        public final double P;
+        public final double I;
+        public final double D;
+        public final double F;
+        public final double IZone;
+
+        public Gains(double p, double i, double d, double f, double iZone)
+        {
+            P = p;
+            I = i;
+            D = d;
+            F = f;
+            IZone = iZone;
+        }
+    }
+
+    // -- Wait this long after a change before writing, so a burst of dashboard edits becomes one write
+    private static final long CoalesceDelayMs = 100;
+
+    // -- Retries after a failed write wait 200, 400, 800, 1600 ms, then we give up until the gains change again
+    private static final int MaxRetries = 4;
+
+    private static final ScheduledExecutorService Worker = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        var thread = new Thread(runnable, "PIDParameters");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
     private int SlotIndex;
+    private final String Name;
 
     private double P;
     private double I;
@@ -22,17 +84,33 @@ public class PIDParameters implements Sendable
     private double F;
     private double IZone;
 
-    private final Set<BaseTalon> linkedMotors  = new HashSet<>();
-    
+    // -- What the linked motors were last set to, NaN when unknown so it gets written
+    private double AppliedP = Double.NaN;
+    private double AppliedI = Double.NaN;
+    private double AppliedD = Double.NaN;
+    private double AppliedF = Double.NaN;
+    private double AppliedIZone = Double.NaN;
+
+    private boolean UpdateScheduled = false;
+
+    private final Set<PIDBackend> linkedBackends = new HashSet<>();
+
+    // -- Backends linked, or that failed a write, since the last pass. They need every gain.
+    private final Set<PIDBackend> newBackends = new HashSet<>();
+
+    // -- Failed writes in a row, per backend. Only backends that are failing are in here.
+    private final Map<PIDBackend, Integer> failedAttempts = new HashMap<>();
+
     public PIDParameters (int slotIdx, String sendableName, double p, double i, double d, double f, double iZone)
     {
         SlotIndex = slotIdx;
+        Name = sendableName;
         P = p;
         I = i;
         D = d;
         F = f;
         IZone = iZone;
-        
+
         SmartDashboard.putData(sendableName, this);
     }
 
@@ -47,18 +125,121 @@ public class PIDParameters implements Sendable
      * @param motor motor to configure
      */
     public void configureMotorPID (BaseTalon motor) {
-        linkedMotors.add(motor);
+        linkBackend(new Phoenix5PIDBackend(motor));
+    }
+
+    /**
+     * Link a Phoenix 6 TalonFX. F is written as kV, IZone is ignored (with a warning), see Phoenix6PIDBackend.
+     *
+     * @param motor motor to configure
+     */
+    public void configureMotorPID (TalonFX motor) {
+        linkBackend(new Phoenix6PIDBackend(motor));
+    }
+
+    /**
+     * Link a REV Spark MAX or Spark Flex
+     *
+     * @param motor motor to configure
+     */
+    public void configureMotorPID (CANSparkBase motor) {
+        linkBackend(new SparkPIDBackend(motor));
+    }
+
+    /**
+     * Link any motor controller. Every gain is written to it on the next pass.
+     */
+    public synchronized void linkBackend (PIDBackend backend) {
+        linkedBackends.add(backend);
+        newBackends.add(backend);
         updateMotorPID();
     }
 
-    public void updateMotorPID ()
+    /**
+     * Schedule a write of any changed gains to the linked motors. Returns right away.
+     */
+    public synchronized void updateMotorPID ()
+    {
+        scheduleUpdate(CoalesceDelayMs);
+    }
+
+    private synchronized void scheduleUpdate (long delayMs)
+    {
+        if (UpdateScheduled) { return; }
+
+        UpdateScheduled = true;
+        Worker.schedule(this::applyPendingPID, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the worker thread. Takes a snapshot of the gains, then writes the ones that changed.
+     */
+    private void applyPendingPID ()
     {
-        for (BaseTalon linkedMotor : linkedMotors) {
-            linkedMotor.config_kP(0, P);
-            linkedMotor.config_kI(0, I);
-            linkedMotor.config_kD(0, D);
-            linkedMotor.config_kF(0, F);
-            linkedMotor.config_IntegralZone(0, IZone);
+        Gains gains;
+        EnumSet<EGain> changed = EnumSet.noneOf(EGain.class);
+        PIDBackend[] backends;
+        Set<PIDBackend> fullConfig;
+
+        synchronized (this)
+        {
+            UpdateScheduled = false;
+
+            gains = new Gains(P, I, D, F, IZone);
+
+            if (gains.P != AppliedP) { changed.add(EGain.P); }
+            if (gains.I != AppliedI) { changed.add(EGain.I); }
+            if (gains.D != AppliedD) { changed.add(EGain.D); }
+            if (gains.F != AppliedF) { changed.add(EGain.F); }
+            if (gains.IZone != AppliedIZone) { changed.add(EGain.IZone); }
+
+            backends = linkedBackends.toArray(new PIDBackend[0]);
+            fullConfig = new HashSet<>(newBackends);
+            newBackends.clear();
+        }
+
+        EnumSet<EGain> all = EnumSet.allOf(EGain.class);
+        Set<PIDBackend> failed = new HashSet<>();
+        Set<PIDBackend> succeeded = new HashSet<>();
+        for (PIDBackend backend : backends) {
+            var toWrite = fullConfig.contains(backend) ? all : changed;
+            if (toWrite.isEmpty()) { continue; }
+
+            if (backend.Apply(SlotIndex, gains, toWrite)) {
+                succeeded.add(backend);
+            } else {
+                failed.add(backend);
+            }
+        }
+
+        synchronized (this)
+        {
+            AppliedP = gains.P;
+            AppliedI = gains.I;
+            AppliedD = gains.D;
+            AppliedF = gains.F;
+            AppliedIZone = gains.IZone;
+
+            failedAttempts.keySet().removeAll(succeeded);
+
+            // -- Only the backends that failed get everything again, the rest are up to date. Once a backend is out
+            // -- of retries it stays in newBackends, so the next gain change still tries it once with every gain.
+            int retries = 0;
+            for (PIDBackend backend : failed) {
+                newBackends.add(backend);
+
+                int attempts = failedAttempts.merge(backend, 1, Integer::sum);
+                if (attempts <= MaxRetries) {
+                    retries = Math.max(retries, attempts);
+                } else if (attempts == MaxRetries + 1) {
+                    System.out.println("PIDParameters: " + Name + " couldn't write to " + backend + " after "
+                        + attempts + " attempts, giving up until the gains change");
+                }
+            }
+
+            if (retries > 0) {
+                scheduleUpdate(CoalesceDelayMs << retries);
+            }
         }
     }
 
@@ -74,39 +255,44 @@ public class PIDParameters implements Sendable
     }
 
     public int GetSlotIndex() { return SlotIndex; }
-    public double GetP() { return P; }
-    public double GetI() { return I; }
-    public double GetD() { return D; }
-    public double GetF() { return F; }
-    public double GetIZone() { return IZone; }
+    public synchronized double GetP() { return P; }
+    public synchronized double GetI() { return I; }
+    public synchronized double GetD() { return D; }
+    public synchronized double GetF() { return F; }
+    public synchronized double GetIZone() { return IZone; }
 
-    public void SetP(double p)
+    public synchronized void SetP(double p)
     {
+        if (this.P == p) { return; }
         this.P = p;
         updateMotorPID();
     }
 
-    public void SetI(double i)
+    public synchronized void SetI(double i)
     {
+        if (this.I == i) { return; }
         this.I = i;
         updateMotorPID();
     }
 
-    public void SetD(double d)
+    public synchronized void SetD(double d)
     {
+        if (this.D == d) { return; }
         this.D = d;
         updateMotorPID();
     }
 
-    public void SetF(double f)
+    public synchronized void SetF(double f)
     {
+        if (this.F == f) { return; }
         this.F = f;
         updateMotorPID();
     }
 
-    public void SetIZone(double iZone)
+    public synchronized void SetIZone(double iZone)
     {
+        if (this.IZone == iZone) { return; }
         this.IZone = iZone;
         updateMotorPID();
     }
-}
\ No newline at end of file
+}
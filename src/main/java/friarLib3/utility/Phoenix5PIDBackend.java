@@ -0,0 +1,38 @@
+package friarLib3.utility;
+
+import java.util.EnumSet;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.BaseTalon;
+
+/**
+ * PIDBackend for Phoenix 5 Talons
+ */
+public class Phoenix5PIDBackend implements PIDBackend
+{
+    private static final int ConfigTimeoutMs = 10;
+
+    private final BaseTalon Motor;
+
+    public Phoenix5PIDBackend(BaseTalon motor)
+    {
+        Motor = motor;
+    }
+
+    @Override
+    public boolean Apply(int slot, PIDParameters.Gains gains, EnumSet<PIDParameters.EGain> changed)
+    {
+        boolean ok = true;
+
+        if (changed.contains(PIDParameters.EGain.P)) { ok &= Motor.config_kP(slot, gains.P, ConfigTimeoutMs) == ErrorCode.OK; }
+        if (changed.contains(PIDParameters.EGain.I)) { ok &= Motor.config_kI(slot, gains.I, ConfigTimeoutMs) == ErrorCode.OK; }
+        if (changed.contains(PIDParameters.EGain.D)) { ok &= Motor.config_kD(slot, gains.D, ConfigTimeoutMs) == ErrorCode.OK; }
+        if (changed.contains(PIDParameters.EGain.F)) { ok &= Motor.config_kF(slot, gains.F, ConfigTimeoutMs) == ErrorCode.OK; }
+        if (changed.contains(PIDParameters.EGain.IZone)) { ok &= Motor.config_IntegralZone(slot, gains.IZone, ConfigTimeoutMs) == ErrorCode.OK; }
+
+        return ok;
+    }
+
+    @Override
+    public String toString() { return "Talon " + Motor.getDeviceID(); }
+}
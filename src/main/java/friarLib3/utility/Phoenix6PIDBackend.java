@@ -0,0 +1,99 @@
+package friarLib3.utility;
+
+import java.util.EnumSet;
+
+import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
+import com.ctre.phoenix6.configs.Slot2Configs;
+import com.ctre.phoenix6.configs.TalonFXConfigurator;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+/**
+ * PIDBackend for Phoenix 6 TalonFX slots. F maps to kV.
+ *
+ * IZone is dropped: Phoenix 6 slots have no integral zone, and nothing else in the config resets the integrator by
+ * error size. A nonzero IZone prints a warning the first time it's seen so it doesn't look like it's doing something.
+ * Keep kI small, or handle windup in the command, on TalonFX mechanisms.
+ *
+ * Phoenix 6 writes a whole slot at once, so the slot is read back once and cached. Edits change the cached copy,
+ * which keeps kS, kG, gravity type, etc. as they were configured.
+ */
+public class Phoenix6PIDBackend implements PIDBackend
+{
+    // -- Same as DeviceConfigurator, shorter fails applies whenever the bus is busy
+    private static final double ConfigTimeoutSeconds = 0.1;
+
+    private final TalonFXConfigurator Configurator;
+    private final int DeviceId;
+    private boolean WarnedIZone = false;
+
+    private Slot0Configs Slot0;
+    private Slot1Configs Slot1;
+    private Slot2Configs Slot2;
+
+    public Phoenix6PIDBackend(TalonFX motor)
+    {
+        Configurator = motor.getConfigurator();
+        DeviceId = motor.getDeviceID();
+    }
+
+    @Override
+    public String toString() { return "TalonFX " + DeviceId; }
+
+    @Override
+    public boolean Apply(int slot, PIDParameters.Gains gains, EnumSet<PIDParameters.EGain> changed)
+    {
+        if (!WarnedIZone && gains.IZone != 0 && changed.contains(PIDParameters.EGain.IZone))
+        {
+            WarnedIZone = true;
+            System.out.println("Phoenix6PIDBackend: TalonFX has no IZone, ignoring IZone " + gains.IZone
+                + " for slot " + slot);
+        }
+
+        switch (slot)
+        {
+            case 0:
+                if (Slot0 == null)
+                {
+                    var configs = new Slot0Configs();
+                    if (!Configurator.refresh(configs, ConfigTimeoutSeconds).isOK()) { return false; }
+                    Slot0 = configs;
+                }
+                if (changed.contains(PIDParameters.EGain.P)) { Slot0.kP = gains.P; }
+                if (changed.contains(PIDParameters.EGain.I)) { Slot0.kI = gains.I; }
+                if (changed.contains(PIDParameters.EGain.D)) { Slot0.kD = gains.D; }
+                if (changed.contains(PIDParameters.EGain.F)) { Slot0.kV = gains.F; }
+                return Configurator.apply(Slot0, ConfigTimeoutSeconds).isOK();
+
+            case 1:
+                if (Slot1 == null)
+                {
+                    var configs = new Slot1Configs();
+                    if (!Configurator.refresh(configs, ConfigTimeoutSeconds).isOK()) { return false; }
+                    Slot1 = configs;
+                }
+                if (changed.contains(PIDParameters.EGain.P)) { Slot1.kP = gains.P; }
+                if (changed.contains(PIDParameters.EGain.I)) { Slot1.kI = gains.I; }
+                if (changed.contains(PIDParameters.EGain.D)) { Slot1.kD = gains.D; }
+                if (changed.contains(PIDParameters.EGain.F)) { Slot1.kV = gains.F; }
+                return Configurator.apply(Slot1, ConfigTimeoutSeconds).isOK();
+
+            case 2:
+                if (Slot2 == null)
+                {
+                    var configs = new Slot2Configs();
+                    if (!Configurator.refresh(configs, ConfigTimeoutSeconds).isOK()) { return false; }
+                    Slot2 = configs;
+                }
+                if (changed.contains(PIDParameters.EGain.P)) { Slot2.kP = gains.P; }
+                if (changed.contains(PIDParameters.EGain.I)) { Slot2.kI = gains.I; }
+                if (changed.contains(PIDParameters.EGain.D)) { Slot2.kD = gains.D; }
+                if (changed.contains(PIDParameters.EGain.F)) { Slot2.kV = gains.F; }
+                return Configurator.apply(Slot2, ConfigTimeoutSeconds).isOK();
+
+            default:
+                System.out.println("Phoenix6PIDBackend: TalonFX has no slot " + slot);
+                return true;
+        }
+    }
+}
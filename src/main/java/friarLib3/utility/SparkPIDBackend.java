@@ -0,0 +1,39 @@
+package friarLib3.utility;
+
+import java.util.EnumSet;
+
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkPIDController;
+
+/**
+ * PIDBackend for REV Spark MAX / Spark Flex PID slots. F maps to the Spark's FF gain.
+ */
+public class SparkPIDBackend implements PIDBackend
+{
+    private final SparkPIDController Controller;
+    private final int DeviceId;
+
+    public SparkPIDBackend(CANSparkBase motor)
+    {
+        Controller = motor.getPIDController();
+        DeviceId = motor.getDeviceId();
+    }
+
+    @Override
+    public boolean Apply(int slot, PIDParameters.Gains gains, EnumSet<PIDParameters.EGain> changed)
+    {
+        boolean ok = true;
+
+        if (changed.contains(PIDParameters.EGain.P)) { ok &= Controller.setP(gains.P, slot) == REVLibError.kOk; }
+        if (changed.contains(PIDParameters.EGain.I)) { ok &= Controller.setI(gains.I, slot) == REVLibError.kOk; }
+        if (changed.contains(PIDParameters.EGain.D)) { ok &= Controller.setD(gains.D, slot) == REVLibError.kOk; }
+        if (changed.contains(PIDParameters.EGain.F)) { ok &= Controller.setFF(gains.F, slot) == REVLibError.kOk; }
+        if (changed.contains(PIDParameters.EGain.IZone)) { ok &= Controller.setIZone(gains.IZone, slot) == REVLibError.kOk; }
+
+        return ok;
+    }
+
+    @Override
+    public String toString() { return "Spark " + DeviceId; }
+}
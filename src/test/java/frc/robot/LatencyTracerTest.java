@@ -0,0 +1,114 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LatencyTracerTest
+{
+    private static final long InitializeDelayNanos = 5_000_000;
+
+    // -- Stands in for an IO implementation
+    private final Object IO = new Object();
+    private SubsystemBase Subsystem;
+    private boolean Pressed;
+
+    @BeforeAll
+    static void SetUpHAL()
+    {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        LatencyTracer.Initialize();
+    }
+
+    @BeforeEach
+    void SetUp()
+    {
+        Subsystem = new SubsystemBase() {};
+        LatencyTracer.RegisterActuator(IO, Subsystem);
+        Pressed = false;
+    }
+
+    @AfterEach
+    void TearDown()
+    {
+        var scheduler = CommandScheduler.getInstance();
+        scheduler.cancelAll();
+        scheduler.getDefaultButtonLoop().clear();
+        scheduler.unregisterAllSubsystems();
+    }
+
+    /**
+     * Busy waits in initialize so the span has a known minimum length, then writes
+     */
+    private Command SlowToActuate()
+    {
+        return Commands.runOnce(() ->
+        {
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < InitializeDelayNanos) {}
+            LatencyTracer.Actuated(IO);
+        }, Subsystem).andThen(Commands.idle(Subsystem));
+    }
+
+    private void Press()
+    {
+        Pressed = true;
+        CommandScheduler.getInstance().run();
+        Pressed = false;
+        CommandScheduler.getInstance().run();
+    }
+
+    @Test
+    void InterruptedCommandsWriteDoesNotCloseTheSpan()
+    {
+        var total = LoopProfiler.GetSection("Latency.Interrupt.Total");
+
+        // -- Writes on the way out, like Command_IntakeNote stopping the rollers
+        CommandScheduler.getInstance().schedule(Commands.idle(Subsystem).finallyDo(() -> LatencyTracer.Actuated(IO)));
+        CommandScheduler.getInstance().run();
+
+        LatencyTracer.Bind(() -> Pressed, "Interrupt", SlowToActuate());
+        Press();
+
+        assertEquals(1, total.GetCount());
+        assertTrue(total.GetMaxNanos() >= InitializeDelayNanos, "closed after " + total.GetMaxNanos() + " ns");
+    }
+
+    @Test
+    void WriteFromExecuteClosesTheSpan()
+    {
+        var total = LoopProfiler.GetSection("Latency.Execute.Total");
+        var initializeToExecute = LoopProfiler.GetSection("Latency.Execute.InitializeToExecute");
+
+        LatencyTracer.Bind(() -> Pressed, "Execute", Commands.run(() -> LatencyTracer.Actuated(IO), Subsystem));
+        Press();
+
+        assertEquals(1, total.GetCount());
+        assertEquals(1, initializeToExecute.GetCount());
+    }
+
+    @Test
+    void PressWhileRunningDoesNotOpenASpan()
+    {
+        var total = LoopProfiler.GetSection("Latency.Running.Total");
+
+        LatencyTracer.Bind(() -> Pressed, "Running", SlowToActuate());
+        Press();
+        Press();
+
+        assertEquals(1, total.GetCount());
+    }
+}
@@ -0,0 +1,145 @@
+package friarLib3.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FastMathTest
+{
+    private static final double SinBound = 7.5e-8;
+    private static final double AtanBound = 1.7e-6;
+    private static final double AsinBound = 2.2e-8;
+
+    private static final int Samples = 2_000_000;
+
+    @Test
+    void SinAndCosStayWithinBound()
+    {
+        double worstSin = 0;
+        double worstCos = 0;
+        for (int i = 0; i <= Samples; i++)
+        {
+            double x = -4 * Math.PI + 8 * Math.PI * i / Samples;
+            worstSin = Math.max(worstSin, Math.abs(FastMath.Sin(x) - Math.sin(x)));
+            worstCos = Math.max(worstCos, Math.abs(FastMath.Cos(x) - Math.cos(x)));
+        }
+
+        assertTrue(worstSin <= SinBound, "sin error " + worstSin);
+        assertTrue(worstCos <= SinBound, "cos error " + worstCos);
+    }
+
+    @Test
+    void SinStaysWithinBoundForLargeArguments()
+    {
+        for (double start : new double[] { 1e3, -1e4, 1e6, -1e8 })
+        {
+            for (int i = 0; i < 100_000; i++)
+            {
+                double x = start + i * 0.0123;
+                assertEquals(Math.sin(x), FastMath.Sin(x), SinBound, "sin at " + x);
+                assertEquals(Math.cos(x), FastMath.Cos(x), SinBound, "cos at " + x);
+            }
+        }
+
+        // -- Way past where the table index can be computed, but it should still be a plausible sine
+        for (double x : new double[] { 1e20, -1e20, 1e300 })
+        {
+            double value = FastMath.Sin(x);
+            assertTrue(value >= -1 && value <= 1, "sin " + x + " = " + value);
+        }
+    }
+
+    @Test
+    void AtanStaysWithinBound()
+    {
+        double worst = 0;
+        for (int i = 0; i <= Samples; i++)
+        {
+            double x = Math.tan(-Math.PI / 2 + 1e-6 + (Math.PI - 2e-6) * i / Samples);
+            worst = Math.max(worst, Math.abs(FastMath.Atan(x) - Math.atan(x)));
+        }
+
+        assertTrue(worst <= AtanBound, "atan error " + worst);
+        assertEquals(Math.PI / 2, FastMath.Atan(1e300), AtanBound);
+        assertEquals(-Math.PI / 2, FastMath.Atan(-1e300), AtanBound);
+        assertEquals(Math.PI / 2, FastMath.Atan(Double.POSITIVE_INFINITY), AtanBound);
+        assertEquals(-Math.PI / 2, FastMath.Atan(Double.NEGATIVE_INFINITY), AtanBound);
+    }
+
+    @Test
+    void Atan2StaysWithinBound()
+    {
+        double worst = 0;
+        for (int i = 0; i < Samples; i++)
+        {
+            double angle = -Math.PI + 2 * Math.PI * i / Samples;
+            double magnitude = Math.pow(10, (i % 41) / 2.0 - 10);
+            double y = magnitude * Math.sin(angle);
+            double x = magnitude * Math.cos(angle);
+            worst = Math.max(worst, Math.abs(FastMath.Atan2(y, x) - Math.atan2(y, x)));
+        }
+
+        assertTrue(worst <= AtanBound, "atan2 error " + worst);
+    }
+
+    @Test
+    void Atan2MatchesMathOnTheAxes()
+    {
+        double[][] points = {
+            { 0, 1 }, { 0, -1 }, { 1, 0 }, { -1, 0 },
+            { -0.0, 1 }, { -0.0, -1 }, { 5e-300, 0 }, { 0, 1e300 },
+            { 0, 0 }, { -0.0, 0 }, { 0, -0.0 }, { -0.0, -0.0 },
+            { Double.POSITIVE_INFINITY, 1 }, { 1, Double.NEGATIVE_INFINITY },
+            { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY },
+            { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY },
+        };
+
+        for (var point : points)
+        {
+            double y = point[0];
+            double x = point[1];
+
+            // -- Exact, including the sign of zero and of PI
+            assertEquals(Math.atan2(y, x), FastMath.Atan2(y, x), 0, "atan2(" + y + ", " + x + ")");
+            assertEquals(Math.copySign(1, Math.atan2(y, x)), Math.copySign(1, FastMath.Atan2(y, x)),
+                "sign of atan2(" + y + ", " + x + ")");
+        }
+    }
+
+    @Test
+    void AsinAndAcosStayWithinBound()
+    {
+        double worstAsin = 0;
+        double worstAcos = 0;
+        for (int i = 0; i <= Samples; i++)
+        {
+            double x = -1 + 2.0 * i / Samples;
+            worstAsin = Math.max(worstAsin, Math.abs(FastMath.Asin(x) - Math.asin(x)));
+            worstAcos = Math.max(worstAcos, Math.abs(FastMath.Acos(x) - Math.acos(x)));
+        }
+
+        assertTrue(worstAsin <= AsinBound, "asin error " + worstAsin);
+        assertTrue(worstAcos <= AsinBound, "acos error " + worstAcos);
+
+        // -- Clamped rather than NaN just outside the domain
+        assertEquals(Math.PI / 2, FastMath.Asin(1 + 1e-12), AsinBound);
+        assertEquals(-Math.PI / 2, FastMath.Asin(-1 - 1e-12), AsinBound);
+        assertEquals(0, FastMath.Acos(1 + 1e-12), AsinBound);
+    }
+
+    @Test
+    void NaNPropagates()
+    {
+        assertTrue(Double.isNaN(FastMath.Sin(Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Cos(Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Sin(Double.POSITIVE_INFINITY)));
+        assertTrue(Double.isNaN(FastMath.Cos(Double.NEGATIVE_INFINITY)));
+        assertTrue(Double.isNaN(FastMath.Atan(Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Atan2(Double.NaN, 1)));
+        assertTrue(Double.isNaN(FastMath.Atan2(1, Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Atan2(Double.NaN, Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Asin(Double.NaN)));
+        assertTrue(Double.isNaN(FastMath.Acos(Double.NaN)));
+    }
+}
@@ -0,0 +1,112 @@
+package friarLib3.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LookupTable2DTest
+{
+    private static final double Epsilon = 1e-9;
+
+    // -- Uneven spacing on purpose, so the cell widths matter
+    private static final double[] XInputs = { 1, 1.5, 3, 3.2, 6 };
+    private static final double[] YInputs = { -2, 0, 0.5, 4 };
+
+    private static double Plane(double x, double y)
+    {
+        return 0.7 - 1.3 * x + 2.1 * y;
+    }
+
+    private static LookupTable2D BuildPlane(boolean bicubic)
+    {
+        var builder = new LookupTable2D.Builder(XInputs, YInputs).WithBicubic(bicubic);
+        for (int i = 0; i < XInputs.length; i++)
+        {
+            for (int j = 0; j < YInputs.length; j++)
+            {
+                builder.SetValue(i, j, Plane(XInputs[i], YInputs[j]));
+            }
+        }
+        return builder.Build();
+    }
+
+    private static void AssertReproducesPlane(boolean bicubic)
+    {
+        var table = BuildPlane(bicubic);
+
+        // -- Sweep back and forth so the cell cache gets both neighbors and long jumps
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int i = 0; i <= 100; i++)
+            {
+                double x = 1 + 5 * (pass == 0 ? i : 100 - i) / 100.0;
+                for (int j = 0; j <= 60; j++)
+                {
+                    double y = -2 + 6 * ((j * 37) % 61) / 60.0;
+                    assertEquals(Plane(x, y), table.GetValue(x, y), Epsilon, "at " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void BilinearReproducesPlane()
+    {
+        AssertReproducesPlane(false);
+    }
+
+    @Test
+    void BicubicReproducesPlane()
+    {
+        AssertReproducesPlane(true);
+    }
+
+    @Test
+    void HitsNodesExactly()
+    {
+        for (boolean bicubic : new boolean[] { false, true })
+        {
+            var builder = new LookupTable2D.Builder(XInputs, YInputs).WithBicubic(bicubic);
+            for (int i = 0; i < XInputs.length; i++)
+            {
+                for (int j = 0; j < YInputs.length; j++)
+                {
+                    builder.SetValue(i, j, Math.sin(i * 1.7 + j));
+                }
+            }
+            var table = builder.Build();
+
+            for (int i = 0; i < XInputs.length; i++)
+            {
+                for (int j = 0; j < YInputs.length; j++)
+                {
+                    assertEquals(Math.sin(i * 1.7 + j), table.GetValue(XInputs[i], YInputs[j]), Epsilon);
+                }
+            }
+        }
+    }
+
+    @Test
+    void ClampsToTheGridEdges()
+    {
+        for (boolean bicubic : new boolean[] { false, true })
+        {
+            var table = BuildPlane(bicubic);
+            assertEquals(Plane(1, -2), table.GetValue(-100, -100), Epsilon);
+            assertEquals(Plane(6, 4), table.GetValue(100, 100), Epsilon);
+            assertEquals(Plane(1, 0.25), table.GetValue(0, 0.25), Epsilon);
+            assertEquals(Plane(2, 4), table.GetValue(2, 10), Epsilon);
+        }
+    }
+
+    @Test
+    void CopySharesDataWithItsOwnCache()
+    {
+        var table = BuildPlane(true);
+        var copy = table.Copy();
+
+        table.GetValue(5.5, 3);
+        assertEquals(Plane(1.2, -1), copy.GetValue(1.2, -1), Epsilon);
+        assertEquals(Plane(5.5, 3), table.GetValue(5.5, 3), Epsilon);
+    }
+}
@@ -0,0 +1,191 @@
+package friarLib3.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LookupTableTest
+{
+    private static final double Epsilon = 1e-12;
+
+    private static LookupTable Build(LookupTable.EInterpolation interpolation)
+    {
+        return new LookupTable.Builder()
+            .WithInterpolation(interpolation)
+            .AddValue(4, 1)
+            .AddValue(1, 3)
+            .AddValue(2, 5)
+            .AddValue(6, 2)
+            .Build();
+    }
+
+    @Test
+    void ClampsAtBothEnds()
+    {
+        for (var interpolation : LookupTable.EInterpolation.values())
+        {
+            var table = Build(interpolation);
+            assertEquals(3, table.GetValue(1), Epsilon, interpolation.name());
+            assertEquals(3, table.GetValue(0.5), Epsilon, interpolation.name());
+            assertEquals(3, table.GetValue(-1000), Epsilon, interpolation.name());
+            assertEquals(2, table.GetValue(6), Epsilon, interpolation.name());
+            assertEquals(2, table.GetValue(6.5), Epsilon, interpolation.name());
+            assertEquals(2, table.GetValue(1000), Epsilon, interpolation.name());
+        }
+    }
+
+    @Test
+    void HitsNodesExactly()
+    {
+        for (var interpolation : LookupTable.EInterpolation.values())
+        {
+            var table = Build(interpolation);
+            for (int i = 0; i < table.GetSize(); i++)
+            {
+                assertEquals(table.GetOutput(i), table.GetValue(table.GetInput(i)), Epsilon, interpolation.name());
+            }
+        }
+    }
+
+    @Test
+    void LinearInterpolatesBetweenNodes()
+    {
+        var table = Build(LookupTable.EInterpolation.Linear);
+        assertEquals(4, table.GetValue(1.5), Epsilon);
+        assertEquals(3, table.GetValue(3), Epsilon);
+        assertEquals(1.5, table.GetValue(5), Epsilon);
+    }
+
+    @Test
+    void BuilderSortsAndOverwritesNodes()
+    {
+        var table = new LookupTable.Builder()
+            .AddValue(3, 30)
+            .AddValue(1, 10)
+            .AddValue(3, 33)
+            .AddValue(2, 20)
+            .RemoveValue(2)
+            .Build();
+
+        assertEquals(2, table.GetSize());
+        assertEquals(1, table.GetInput(0), Epsilon);
+        assertEquals(3, table.GetInput(1), Epsilon);
+        assertEquals(33, table.GetOutput(1), Epsilon);
+    }
+
+    @Test
+    void NormalizedMirrorsNegativeInputs()
+    {
+        var table = new LookupTable.Normalized.Builder().AddValue(0.5, 0.25).Build();
+        assertEquals(0.25, table.GetValue(0.5), Epsilon);
+        assertEquals(-0.25, table.GetValue(-0.5), Epsilon);
+        assertEquals(1, table.GetValue(2), Epsilon);
+        assertEquals(-1, table.GetValue(-2), Epsilon);
+    }
+
+    @Test
+    void MonotoneCubicKeepsMonotonicDataMonotonic()
+    {
+        // -- Flat, then a steep step, then flat again: Catmull-Rom overshoots this, monotone cubic must not
+        var builder = new LookupTable.Builder()
+            .AddValue(0, 0)
+            .AddValue(1, 0)
+            .AddValue(2, 0.1)
+            .AddValue(3, 5)
+            .AddValue(4, 5.2)
+            .AddValue(5, 5.2)
+            .AddValue(8, 6);
+
+        var monotone = builder.WithInterpolation(LookupTable.EInterpolation.MonotoneCubic).Build();
+        var catmullRom = builder.WithInterpolation(LookupTable.EInterpolation.CatmullRom).Build();
+
+        double last = monotone.GetValue(-1);
+        boolean catmullRomOvershoots = false;
+        for (int i = 0; i <= 9000; i++)
+        {
+            double x = i / 1000.0;
+            double value = monotone.GetValue(x);
+            assertTrue(value >= last, "decreased at " + x);
+            last = value;
+
+            double catmullRomValue = catmullRom.GetValue(x);
+            catmullRomOvershoots |= catmullRomValue < 0 || catmullRomValue > 6;
+        }
+
+        assertTrue(catmullRomOvershoots, "data should be hard enough to make Catmull-Rom overshoot");
+    }
+
+    @Test
+    void MonotoneCubicIsFlatAtExtremes()
+    {
+        var table = new LookupTable.Builder()
+            .WithInterpolation(LookupTable.EInterpolation.MonotoneCubic)
+            .AddValue(0, 0)
+            .AddValue(1, 1)
+            .AddValue(2, 0)
+            .Build();
+
+        for (int i = 0; i <= 2000; i++)
+        {
+            double value = table.GetValue(i / 1000.0);
+            assertTrue(value >= 0 && value <= 1, "left the range of the nodes at " + i / 1000.0);
+        }
+    }
+
+    private static LookupTable.Normalized BuildCurve()
+    {
+        return new LookupTable.Normalized.Builder()
+            .WithInterpolation(LookupTable.EInterpolation.MonotoneCubic)
+            .AddValue(0.1, 0)
+            .AddValue(0.4, 0.2)
+            .AddValue(0.8, 0.7)
+            .Build();
+    }
+
+    @Test
+    void CompiledStaysWithinItsMaxError()
+    {
+        var source = BuildCurve();
+        var compiled = source.Compile(64);
+
+        assertTrue(compiled.GetMaxError() > 0);
+        assertTrue(compiled.GetMaxError() < 0.01);
+
+        double worst = 0;
+        for (int i = 0; i <= 10000; i++)
+        {
+            double x = i / 10000.0;
+            worst = Math.max(worst, Math.abs(compiled.GetValue(x) - source.GetValue(x)));
+        }
+
+        // -- GetMaxError samples each cell a few times, allow a little for what falls between the samples
+        assertTrue(worst <= compiled.GetMaxError() * 1.5, "worst " + worst + " max error " + compiled.GetMaxError());
+        assertEquals(-compiled.GetValue(0.3), compiled.GetValue(-0.3), Epsilon);
+    }
+
+    @Test
+    void CompiledToBuilderRecompiles()
+    {
+        var compiled = BuildCurve().Compile(32);
+
+        var copy = compiled.ToBuilder().AddValue(0.6, 0.5).Build();
+        var recompiled = assertInstanceOf(LookupTable.Normalized.Compiled.class, copy);
+        assertEquals(32, recompiled.GetResolution());
+        assertEquals(LookupTable.EInterpolation.MonotoneCubic, recompiled.GetSource().GetInterpolation());
+        assertEquals(6, recompiled.GetSource().GetSize());
+        assertEquals(0.5, recompiled.GetSource().GetValue(0.6), Epsilon);
+    }
+
+    @Test
+    void LiveUpdateKeepsCompiledTables()
+    {
+        var live = new LiveLookupTable(BuildCurve().Compile(16));
+        live.Update(builder -> builder.AddValue(0.6, 0.5));
+
+        var compiled = assertInstanceOf(LookupTable.Normalized.Compiled.class, live.Get());
+        assertEquals(16, compiled.GetResolution());
+        assertEquals(0.5, compiled.GetSource().GetValue(0.6), Epsilon);
+    }
+}
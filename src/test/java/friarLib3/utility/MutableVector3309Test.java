@@ -0,0 +1,121 @@
+package friarLib3.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+import org.junit.jupiter.api.Test;
+
+class MutableVector3309Test
+{
+    private static final double Epsilon = 1e-9;
+
+    // -- Cached values must match working them out from scratch, and stay in atan2's range
+    private static void AssertConsistent(MutableVector3309 vector)
+    {
+        double x = vector.getXComponent();
+        double y = vector.getYComponent();
+        double radians = vector.getRadians();
+
+        assertEquals(Math.hypot(x, y), vector.getMagnitude(), Epsilon);
+        assertTrue(radians > -Math.PI && radians <= Math.PI, "direction " + radians + " out of range");
+        assertEquals(0, Math.IEEEremainder(radians - Math.atan2(y, x), 2 * Math.PI), Epsilon,
+            "direction " + radians + " for " + x + ", " + y);
+    }
+
+    @Test
+    void ScaleByNegativeFactorWithStaleMagnitude()
+    {
+        // -- Nothing asked for the magnitude yet, so it's stale when scale multiplies it
+        var vector = new MutableVector3309(3, 4).scale(-2);
+        assertEquals(10, vector.getMagnitude(), Epsilon);
+        assertEquals(Math.atan2(-8, -6), vector.getRadians(), Epsilon);
+
+        // -- Same again with both cached first
+        vector = new MutableVector3309(3, 4);
+        vector.getMagnitude();
+        vector.getRadians();
+        vector.scale(-2);
+        assertEquals(10, vector.getMagnitude(), Epsilon);
+        assertEquals(Math.atan2(-8, -6), vector.getRadians(), Epsilon);
+    }
+
+    @Test
+    void ScaleByZeroPointsLikeAtan2()
+    {
+        var vector = new MutableVector3309().setPolar(2, 3);
+        vector.getRadians();
+        vector.scale(0);
+
+        assertEquals(0, vector.getMagnitude(), Epsilon);
+        assertEquals(Math.atan2(vector.getYComponent(), vector.getXComponent()), vector.getRadians(), Epsilon);
+    }
+
+    @Test
+    void RotateWrapsCachedDirection()
+    {
+        var vector = new MutableVector3309().setPolar(3, 1);
+        for (int i = 0; i < 100; i++)
+        {
+            vector.rotate(0.7);
+            AssertConsistent(vector);
+        }
+        for (int i = 0; i < 100; i++)
+        {
+            vector.rotate(-1.3);
+            AssertConsistent(vector);
+        }
+    }
+
+    @Test
+    void SetPolarWrapsAndHandlesNegativeMagnitude()
+    {
+        var vector = new MutableVector3309().setPolar(7, 2);
+        AssertConsistent(vector);
+        assertEquals(7 - 2 * Math.PI, vector.getRadians(), Epsilon);
+
+        vector.setPolar(-3 * Math.PI, 1);
+        AssertConsistent(vector);
+        assertEquals(Math.PI, vector.getRadians(), Epsilon);
+
+        vector.setPolar(1, -2);
+        AssertConsistent(vector);
+        assertEquals(2, vector.getMagnitude(), Epsilon);
+        assertEquals(1 - Math.PI, vector.getRadians(), Epsilon);
+
+        vector.setPolar(0.5, 0);
+        assertEquals(0, vector.getRadians(), Epsilon);
+    }
+
+    @Test
+    void CachesFollowEveryChange()
+    {
+        var vector = new MutableVector3309(1, 0);
+        vector.getRadians();
+
+        vector.add(-2, 1);
+        AssertConsistent(vector);
+        vector.capMagnitude(0.5);
+        AssertConsistent(vector);
+        vector.normalize();
+        AssertConsistent(vector);
+
+        var copy = new MutableVector3309().set(vector);
+        AssertConsistent(copy);
+        assertEquals(vector.getRadians(), copy.getRadians(), Epsilon);
+    }
+
+    @Test
+    void SetPolarAngleIsNotVector3309sAngle()
+    {
+        // -- setPolar is counterclockwise from x, Vector3309.fromRadialCoords is clockwise from y
+        var mutable = new MutableVector3309().setPolar(0, 1);
+        assertEquals(1, mutable.getXComponent(), Epsilon);
+        assertEquals(0, mutable.getYComponent(), Epsilon);
+
+        var immutable = Vector3309.fromRadialCoords(new Rotation2d(0), 1);
+        assertEquals(0, immutable.getXComponent(), Epsilon);
+        assertEquals(1, immutable.getYComponent(), Epsilon);
+    }
+}